@@ -1,68 +1,120 @@
-package graphs.shortestpaths;
-
-import graphs.AStarGraph;
-import graphs.Edge;
-import minpq.DoubleMapMinPQ;
-import minpq.MinPQ;
-
-import java.util.*;
-
-/**
- * A* search implementation for single-pair shortest paths in an {@link AStarGraph}.
- *
- * @param <V> the type of vertices.
- * @see AStarGraph
- */
-public class AStarSolver<V> {
-    private final Map<V, Edge<V>> edgeTo;
-    private final Map<V, Double> distTo;
-    private final V goal;
-
-    /**
-     * Constructs a new instance by executing A* search on the graph from the start to the goal.
-     *
-     * @param graph the input graph.
-     * @param start the start vertex.
-     * @param goal  the goal vertex.
-     */
-    public AStarSolver(AStarGraph<V> graph, V start, V goal) {
-        edgeTo = new HashMap<>();
-        distTo = new HashMap<>();
-        this.goal = goal;
-        MinPQ<V> perimeter = new DoubleMapMinPQ<>();
-        perimeter.add(start, 0.0);
-        edgeTo.put(start, null);
-        distTo.put(start, 0.0);
-        while (!perimeter.isEmpty()) {
-            V from = perimeter.removeMin();
-            for (Edge<V> e : graph.neighbors(from)) {
-                V to = e.to;
-                double oldDist = distTo.getOrDefault(to, Double.POSITIVE_INFINITY);
-                double newDist = distTo.get(from) + e.weight;
-                if (newDist < oldDist) {
-                    edgeTo.put(to, e);
-                    distTo.put(to, newDist);
-                    double priority = newDist + graph.estimatedDistance(to, goal);
-                    perimeter.addOrChangePriority(to, priority);
-                }
-            }
-        }
-    }
-
-    /**
-     * Returns the single-pair shortest path from the stored start to the stored goal.
-     *
-     * @return a list of vertices representing the shortest path.
-     */
-    public List<V> solution() {
-        List<V> path = new ArrayList<>();
-        V curr = goal;
-        path.add(curr);
-        while (edgeTo.get(curr) != null) {
-            curr = edgeTo.get(curr).from;
-            path.add(curr);
-        }
-        Collections.reverse(path);
-        return path;
-    }
-}
+package graphs.shortestpaths;
+
+import graphs.AStarGraph;
+import graphs.Edge;
+import minpq.DoubleMapMinPQ;
+import minpq.MinPQ;
+
+import java.util.*;
+
+/**
+ * A* search implementation for single-pair shortest paths in an {@link AStarGraph}. The search stops as soon as the
+ * goal is removed from the perimeter, so it only explores the vertices whose estimated total distance through them is
+ * less than the distance to the goal.
+ * <p>
+ * With a consistent heuristic, such as straight-line distance when edge weights are at least the straight-line length
+ * of the edge, the distance to each vertex is final once it is removed from the perimeter, so settled vertices are
+ * never relaxed again. With a heuristic that is only admissible, shorter paths to settled vertices can still be found
+ * later, so those vertices must be reopened and returned to the perimeter.
+ *
+ * @param <V> the type of vertices.
+ * @see AStarGraph
+ */
+public class AStarSolver<V> {
+    private final Map<V, Edge<V>> edgeTo;
+    private final Map<V, Double> distTo;
+    /**
+     * Vertices removed from the perimeter whose distance is final, unless the heuristic is inconsistent.
+     */
+    private final Set<V> settled;
+    private final V goal;
+    /**
+     * The number of times a vertex was removed from the perimeter, counting reopened vertices once per removal.
+     */
+    private int settledCount;
+
+    /**
+     * Constructs a new instance by executing A* search on the graph from the start to the goal, assuming that the
+     * heuristic of the graph is consistent.
+     *
+     * @param graph the input graph.
+     * @param start the start vertex.
+     * @param goal  the goal vertex.
+     */
+    public AStarSolver(AStarGraph<V> graph, V start, V goal) {
+        this(graph, start, goal, true);
+    }
+
+    /**
+     * Constructs a new instance by executing A* search on the graph from the start to the goal.
+     *
+     * @param graph               the input graph.
+     * @param start               the start vertex.
+     * @param goal                the goal vertex.
+     * @param consistentHeuristic true if the heuristic of the graph never decreases by more than the weight of an edge
+     *                            along that edge, so settled vertices never need to be reopened; false if the heuristic
+     *                            is only admissible.
+     */
+    public AStarSolver(AStarGraph<V> graph, V start, V goal, boolean consistentHeuristic) {
+        edgeTo = new HashMap<>();
+        distTo = new HashMap<>();
+        settled = new HashSet<>();
+        this.goal = goal;
+        settledCount = 0;
+        MinPQ<V> perimeter = new DoubleMapMinPQ<>();
+        perimeter.add(start, 0.0);
+        edgeTo.put(start, null);
+        distTo.put(start, 0.0);
+        while (!perimeter.isEmpty()) {
+            V from = perimeter.removeMin();
+            settled.add(from);
+            settledCount += 1;
+            if (from.equals(goal)) {
+                return;
+            }
+            for (Edge<V> e : graph.neighbors(from)) {
+                V to = e.to;
+                if (consistentHeuristic && settled.contains(to)) {
+                    continue;
+                }
+                double oldDist = distTo.getOrDefault(to, Double.POSITIVE_INFINITY);
+                double newDist = distTo.get(from) + e.weight;
+                if (newDist < oldDist) {
+                    edgeTo.put(to, e);
+                    distTo.put(to, newDist);
+                    // Only reachable with an inconsistent heuristic: reopen the vertex.
+                    settled.remove(to);
+                    double priority = newDist + graph.estimatedDistance(to, goal);
+                    perimeter.addOrChangePriority(to, priority);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of times a vertex was removed from the perimeter and expanded, which measures the work done
+     * by the search. A reopened vertex is counted each time it is expanded.
+     *
+     * @return the number of vertices expanded.
+     */
+    public int settledCount() {
+        return settledCount;
+    }
+
+    /**
+     * Returns the single-pair shortest path from the stored start to the stored goal.
+     *
+     * @return a list of vertices representing the shortest path.
+     */
+    public List<V> solution() {
+        List<V> path = new ArrayList<>();
+        V curr = goal;
+        path.add(curr);
+        while (edgeTo.get(curr) != null) {
+            curr = edgeTo.get(curr).from;
+            path.add(curr);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+}
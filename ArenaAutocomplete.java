@@ -0,0 +1,563 @@
+package autocomplete;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Arena implementation of the {@link Autocomplete} interface. The characters of every term are stored back-to-back in
+ * one {@code char[]} arena and each term is addressed by an int id, so a term costs its characters plus a few ints
+ * instead of a separate object with its own header. Terms are searched by binary search over an int array of ids in
+ * sorted order, comparing prefixes directly against the arena: finding and counting matches allocates nothing, and
+ * each returned match is a lightweight view of the arena rather than a copy of its characters.
+ * <p>
+ * Removed terms are marked with tombstones and skipped by queries. Once tombstones make up a quarter of the sorted
+ * ids, the ids are compacted; the characters of removed terms stay in the arena.
+ *
+ * @see Autocomplete
+ */
+public class ArenaAutocomplete implements Autocomplete {
+    /**
+     * Initial capacity of the arena in characters and of the term arrays in terms.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * Fraction of the sorted ids that tombstones may occupy before the ids are compacted.
+     */
+    private static final int COMPACTION_DIVISOR = 4;
+
+    /**
+     * The characters of every term, in the order the terms were added.
+     */
+    private char[] arena;
+    /**
+     * The start of each term in the arena by id. The term with id i ends where the term with id i + 1 starts.
+     */
+    private int[] starts;
+    /**
+     * The weight of each term by id.
+     */
+    private double[] weights;
+    /**
+     * The ids of all terms in sorted order of the terms.
+     */
+    private int[] sorted;
+    /**
+     * The number of terms.
+     */
+    private int size;
+    /**
+     * Tombstones marking the ids of removed terms that are still in the sorted ids.
+     */
+    private final BitSet removed;
+    /**
+     * The number of tombstones.
+     */
+    private int removedCount;
+
+    /**
+     * Constructs an empty instance.
+     */
+    public ArenaAutocomplete() {
+        arena = new char[INITIAL_CAPACITY];
+        starts = new int[INITIAL_CAPACITY + 1];
+        weights = new double[INITIAL_CAPACITY];
+        sorted = new int[0];
+        size = 0;
+        removed = new BitSet();
+        removedCount = 0;
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        int[] batch = new int[terms.size()];
+        int count = 0;
+        for (CharSequence term : terms) {
+            int existing = find(term);
+            if (existing < 0) {
+                batch[count] = append(term, 0.0);
+                count += 1;
+            } else if (removed.get(existing)) {
+                restore(existing, 0.0);
+            }
+        }
+        merge(batch, count);
+    }
+
+    @Override
+    public void addAll(Map<? extends CharSequence, Double> terms) {
+        int[] batch = new int[terms.size()];
+        int count = 0;
+        for (Map.Entry<? extends CharSequence, Double> entry : terms.entrySet()) {
+            int existing = find(entry.getKey());
+            if (existing >= 0 && removed.get(existing)) {
+                restore(existing, entry.getValue());
+            } else if (existing >= 0) {
+                weights[existing] = entry.getValue();
+            } else {
+                batch[count] = append(entry.getKey(), entry.getValue());
+                count += 1;
+            }
+        }
+        merge(batch, count);
+    }
+
+    /**
+     * Clears the tombstone of a removed term that is still in the sorted ids and gives it the given weight.
+     */
+    private void restore(int id, double weight) {
+        removed.clear(id);
+        removedCount -= 1;
+        weights[id] = weight;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Marks the term with a tombstone, compacting the sorted ids once tombstones make up a quarter of them.
+     */
+    @Override
+    public boolean remove(CharSequence term) {
+        int id = find(term);
+        if (id < 0 || removed.get(id)) {
+            return false;
+        }
+        removed.set(id);
+        removedCount += 1;
+        if (removedCount > sorted.length / COMPACTION_DIVISOR) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Drops the ids of removed terms from the sorted ids and clears the tombstones.
+     */
+    private void compact() {
+        int[] compacted = new int[sorted.length - removedCount];
+        int count = 0;
+        for (int id : sorted) {
+            if (!removed.get(id)) {
+                compacted[count] = id;
+                count += 1;
+            }
+        }
+        sorted = compacted;
+        removed.clear();
+        removedCount = 0;
+    }
+
+    @Override
+    public boolean updateWeight(CharSequence term, double weight) {
+        int id = find(term);
+        if (id < 0 || removed.get(id)) {
+            return false;
+        }
+        weights[id] = weight;
+        return true;
+    }
+
+    /**
+     * Copies the term into the arena and returns its new id.
+     */
+    private int append(CharSequence term, double weight) {
+        int start = starts[size];
+        int end = start + term.length();
+        if (end > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(end, arena.length * 2));
+        }
+        for (int i = 0; i < term.length(); i += 1) {
+            arena[start + i] = term.charAt(i);
+        }
+        if (size == weights.length) {
+            weights = Arrays.copyOf(weights, size * 2);
+            starts = Arrays.copyOf(starts, size * 2 + 1);
+        }
+        weights[size] = weight;
+        starts[size + 1] = end;
+        size += 1;
+        return size - 1;
+    }
+
+    /**
+     * Sorts the first count ids of the batch on their own, drops duplicate terms within the batch, and merges the
+     * rest into the sorted ids in a single linear pass.
+     */
+    private void merge(int[] batch, int count) {
+        if (count == 0) {
+            return;
+        }
+        sort(batch, new int[count], 0, count);
+        int unique = 1;
+        for (int i = 1; i < count; i += 1) {
+            if (compare(batch[i], batch[unique - 1]) != 0) {
+                batch[unique] = batch[i];
+                unique += 1;
+            }
+        }
+        // Duplicates within the batch keep their arena space and weight slot but are never reachable.
+        int[] merged = new int[sorted.length + unique];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < sorted.length && j < unique) {
+            if (compare(sorted[i], batch[j]) <= 0) {
+                merged[k] = sorted[i];
+                i += 1;
+            } else {
+                merged[k] = batch[j];
+                j += 1;
+            }
+            k += 1;
+        }
+        System.arraycopy(sorted, i, merged, k, sorted.length - i);
+        System.arraycopy(batch, j, merged, k + sorted.length - i, unique - j);
+        sorted = merged;
+    }
+
+    /**
+     * Merge sorts the ids between low (inclusive) and high (exclusive) by their terms.
+     */
+    private void sort(int[] ids, int[] buffer, int low, int high) {
+        if (high - low < 2) {
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        sort(ids, buffer, low, middle);
+        sort(ids, buffer, middle, high);
+        System.arraycopy(ids, low, buffer, low, high - low);
+        int i = low;
+        int j = middle;
+        for (int k = low; k < high; k += 1) {
+            if (j >= high || (i < middle && compare(buffer[i], buffer[j]) <= 0)) {
+                ids[k] = buffer[i];
+                i += 1;
+            } else {
+                ids[k] = buffer[j];
+                j += 1;
+            }
+        }
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return allMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix, VisitSink visits) {
+        return matches(prefix, visits).collect(Collectors.toList());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Answers the prefixes in sorted order, so the matches of each prefix start no earlier than those of the previous
+     * one and each binary search can skip the ids before them. A prefix of another prefix in the batch is answered
+     * first, and the longer prefix is answered by binary search within its matches.
+     */
+    @Override
+    public List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes) {
+        int[] low = {0};
+        return PrefixBatch.sortedMatches(prefixes, prefix -> {
+            List<CharSequence> result = new ArrayList<>();
+            if (prefix == null || prefix.length() == 0) {
+                return result;
+            }
+            int start = start(prefix, low[0], sorted.length, VisitSink.NONE);
+            low[0] = start;
+            int end = end(prefix, start, VisitSink.NONE);
+            for (int i = start; i < end; i += 1) {
+                if (removedCount == 0 || !removed.get(sorted[i])) {
+                    result.add(term(sorted[i]));
+                }
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public Stream<CharSequence> matches(CharSequence prefix) {
+        return matches(prefix, VisitSink.NONE);
+    }
+
+    /**
+     * Returns a lazily-evaluated stream of the terms that match the given prefix, reporting the probes of the binary
+     * searches that find them to the given sink.
+     */
+    private Stream<CharSequence> matches(CharSequence prefix, VisitSink visits) {
+        if (prefix == null || prefix.length() == 0) {
+            return Stream.empty();
+        }
+        int start = start(prefix, visits);
+        IntStream ids = IntStream.range(start, end(prefix, start, visits)).map(i -> sorted[i]);
+        if (removedCount > 0) {
+            ids = ids.filter(id -> !removed.get(id));
+        }
+        return ids.mapToObj(this::term);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        return countMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix, VisitSink visits) {
+        if (prefix == null || prefix.length() == 0) {
+            return 0;
+        }
+        int start = start(prefix, visits);
+        int end = end(prefix, start, visits);
+        int count = end - start;
+        if (removedCount > 0) {
+            for (int i = start; i < end; i += 1) {
+                if (removed.get(sorted[i])) {
+                    count -= 1;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        return topMatches(prefix, k, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k, VisitSink visits) {
+        List<CharSequence> result = new ArrayList<>();
+        if (prefix == null || prefix.length() == 0 || k <= 0) {
+            return result;
+        }
+        int start = start(prefix, visits);
+        int end = end(prefix, start, visits);
+        visits.visited(end - start);
+        // Keep the ids of the k best matches in a small min-heap on weight.
+        int[] heap = new int[Math.min(k, end - start)];
+        int heapSize = 0;
+        for (int i = start; i < end; i += 1) {
+            int id = sorted[i];
+            if (removedCount > 0 && removed.get(id)) {
+                continue;
+            }
+            if (heapSize < heap.length) {
+                heap[heapSize] = id;
+                heapSize += 1;
+                siftUp(heap, heapSize - 1);
+            } else if (weights[id] > weights[heap[0]]) {
+                heap[0] = id;
+                siftDown(heap, heapSize, 0);
+            }
+        }
+        CharSequence[] best = new CharSequence[heapSize];
+        while (heapSize > 0) {
+            heapSize -= 1;
+            best[heapSize] = term(heap[0]);
+            heap[0] = heap[heapSize];
+            siftDown(heap, heapSize, 0);
+        }
+        result.addAll(Arrays.asList(best));
+        return result;
+    }
+
+    private void siftUp(int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (weights[heap[index]] >= weights[heap[parent]]) {
+                return;
+            }
+            swap(heap, index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int size, int index) {
+        while (2 * index + 1 < size) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && weights[heap[child + 1]] < weights[heap[child]]) {
+                child += 1;
+            }
+            if (weights[heap[index]] <= weights[heap[child]]) {
+                return;
+            }
+            swap(heap, index, child);
+            index = child;
+        }
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
+
+    /**
+     * Returns the id of the given term, or a negative number if it has not been added.
+     */
+    private int find(CharSequence term) {
+        int index = start(term, VisitSink.NONE);
+        if (index < sorted.length && compare(sorted[index], term) == 0) {
+            return sorted[index];
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the position in sorted order of the first term that is greater than or equal to the prefix, and reports
+     * the number of probes to the given sink.
+     */
+    private int start(CharSequence prefix, VisitSink visits) {
+        return start(prefix, 0, sorted.length, visits);
+    }
+
+    /**
+     * Returns the position in sorted order of the first term that is greater than or equal to the prefix, which must
+     * be between low and high (inclusive), and reports the number of probes to the given sink.
+     */
+    private int start(CharSequence prefix, int low, int high, VisitSink visits) {
+        int probes = 0;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            probes += 1;
+            if (compare(sorted[middle], prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        visits.visited(probes);
+        return low;
+    }
+
+    /**
+     * Returns the position in sorted order of the first term at or after the start that does not match the prefix, and
+     * reports the number of probes to the given sink.
+     */
+    private int end(CharSequence prefix, int start, VisitSink visits) {
+        int low = start;
+        int high = sorted.length;
+        int probes = 0;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            probes += 1;
+            if (isPrefixOf(prefix, sorted[middle])) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        visits.visited(probes);
+        return low;
+    }
+
+    /**
+     * Compares the terms with the given ids in place, like {@link CharSequence#compare}.
+     */
+    private int compare(int id, int other) {
+        int start = starts[id];
+        int length = starts[id + 1] - start;
+        int otherStart = starts[other];
+        int otherLength = starts[other + 1] - otherStart;
+        int n = Math.min(length, otherLength);
+        for (int i = 0; i < n; i += 1) {
+            char c = arena[start + i];
+            char d = arena[otherStart + i];
+            if (c != d) {
+                return c - d;
+            }
+        }
+        return length - otherLength;
+    }
+
+    /**
+     * Compares the term with the given id against the given text in place, like {@link CharSequence#compare}.
+     */
+    private int compare(int id, CharSequence text) {
+        int start = starts[id];
+        int length = starts[id + 1] - start;
+        int n = Math.min(length, text.length());
+        for (int i = 0; i < n; i += 1) {
+            char c = arena[start + i];
+            if (c != text.charAt(i)) {
+                return c - text.charAt(i);
+            }
+        }
+        return length - text.length();
+    }
+
+    /**
+     * Returns true if and only if the term with the given id matches the given prefix, comparing in place.
+     */
+    private boolean isPrefixOf(CharSequence prefix, int id) {
+        int start = starts[id];
+        if (starts[id + 1] - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i += 1) {
+            if (arena[start + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a view of the term with the given id.
+     */
+    private Term term(int id) {
+        return new Term(arena, starts[id], starts[id + 1] - starts[id]);
+    }
+
+    /**
+     * Returns the estimated number of bytes used by the arrays backing this instance, including unused capacity.
+     *
+     * @return the estimated memory footprint of this instance in bytes.
+     */
+    @Override
+    public long memoryFootprint() {
+        return (long) arena.length * Character.BYTES + (long) starts.length * Integer.BYTES
+                + (long) weights.length * Double.BYTES + (long) sorted.length * Integer.BYTES;
+    }
+
+    /**
+     * A read-only view of a single term in the arena. Holds the arena it was created from, which is never modified
+     * at the positions of existing terms, so the view remains valid after more terms are added.
+     */
+    private static class Term implements CharSequence {
+        private final char[] chars;
+        private final int start;
+        private final int length;
+
+        Term(char[] chars, int start, int length) {
+            this.chars = chars;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+            }
+            return chars[start + index];
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public CharSequence subSequence(int begin, int end) {
+            return toString().subSequence(begin, end);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, start, length);
+        }
+    }
+}
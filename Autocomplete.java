@@ -1,43 +1,237 @@
-package autocomplete;
-
-import java.util.Collection;
-import java.util.List;
-
-/**
- * Suggest exact-character prefix matches for any query {@link CharSequence}.
- *
- * @see TreeSetAutocomplete
- * @see SequentialSearchAutocomplete
- * @see BinarySearchAutocomplete
- * @see TernarySearchTreeAutocomplete
- */
-public interface Autocomplete {
-    /**
-     * Adds the given collection of autocompletion terms.
-     *
-     * @param terms collection containing elements to be added.
-     */
-    void addAll(Collection<? extends CharSequence> terms);
-
-    /**
-     * Returns all autocompletion terms that match the given prefix.
-     *
-     * @param prefix search query.
-     */
-    List<CharSequence> allMatches(CharSequence prefix);
-
-    /**
-     * Returns true if and only if the given term matches the given prefix.
-     *
-     * @param prefix prefix template.
-     * @param term term to check against the prefix.
-     * @return true if and only if the given term matches the given prefix.
-     */
-    static boolean isPrefixOf(CharSequence prefix, CharSequence term) {
-        if (prefix.length() <= term.length()) {
-            CharSequence part = term.subSequence(0, prefix.length());
-            return CharSequence.compare(prefix, part) == 0;
-        }
-        return false;
-    }
-}
+package autocomplete;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+/**
+ * Suggest exact-character prefix matches for any query {@link CharSequence}.
+ *
+ * @see TreeSetAutocomplete
+ * @see SequentialSearchAutocomplete
+ * @see BinarySearchAutocomplete
+ * @see TernarySearchTreeAutocomplete
+ */
+public interface Autocomplete {
+    /**
+     * Adds the given collection of autocompletion terms. Terms that are not already present have weight 0, and terms
+     * that are already present keep their weight.
+     *
+     * @param terms collection containing elements to be added.
+     */
+    void addAll(Collection<? extends CharSequence> terms);
+
+    /**
+     * Adds the given autocompletion terms with their weights, replacing the weight of any term already present.
+     *
+     * @param terms map from each term to be added to its weight.
+     */
+    void addAll(Map<? extends CharSequence, Double> terms);
+
+    /**
+     * Removes the given autocompletion term.
+     *
+     * @param term term to be removed.
+     * @return true if and only if the term was present.
+     * @throws UnsupportedOperationException if this implementation does not support removal.
+     */
+    default boolean remove(CharSequence term) {
+        throw new UnsupportedOperationException("remove");
+    }
+
+    /**
+     * Replaces the weight of the given autocompletion term if it is present. Terms that are not present are not added.
+     *
+     * @param term   term whose weight is to be replaced.
+     * @param weight the new weight of the term.
+     * @return true if and only if the term was present.
+     * @throws UnsupportedOperationException if this implementation does not support weight updates.
+     */
+    default boolean updateWeight(CharSequence term, double weight) {
+        throw new UnsupportedOperationException("updateWeight");
+    }
+
+    /**
+     * Returns all autocompletion terms that match the given prefix.
+     *
+     * @param prefix search query.
+     */
+    List<CharSequence> allMatches(CharSequence prefix);
+
+    /**
+     * Returns all autocompletion terms that match the given prefix, reporting the index nodes or entries the search
+     * visits to the given sink. Indexes that do not count their visits report none.
+     *
+     * @param prefix search query.
+     * @param visits sink for the number of nodes or entries visited.
+     * @return a list of the terms that match the prefix.
+     */
+    default List<CharSequence> allMatches(CharSequence prefix, VisitSink visits) {
+        return allMatches(prefix);
+    }
+
+    /**
+     * Returns all autocompletion terms that match each of the given prefixes. Implementations may answer the prefixes
+     * in sorted order so that prefixes with a common start share the work of finding their matches, and the returned
+     * lists may be read-only views that share storage with one another.
+     *
+     * @param prefixes search queries.
+     * @return the matches of each prefix, in the order of the prefixes.
+     */
+    default List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes) {
+        List<List<CharSequence>> result = new ArrayList<>(prefixes.size());
+        for (CharSequence prefix : prefixes) {
+            result.add(allMatches(prefix));
+        }
+        return result;
+    }
+
+    /**
+     * Returns all autocompletion terms that match each of the given prefixes, answering sorted runs of the prefixes
+     * in parallel in the given pool. Each run is answered by {@link #allMatchesBatch(List)}, so neighbouring prefixes
+     * in a run still share work. Concurrent queries must be safe, so no terms may be added or removed meanwhile.
+     *
+     * @param prefixes search queries.
+     * @param pool     the pool in which to answer the runs.
+     * @return the matches of each prefix, in the order of the prefixes.
+     */
+    default List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes, ForkJoinPool pool) {
+        int[] order = PrefixBatch.order(prefixes);
+        // A few runs per thread balance the load when some prefixes have many more matches than others.
+        int runs = Math.min(order.length, 4 * pool.getParallelism());
+        List<ForkJoinTask<List<List<CharSequence>>>> tasks = new ArrayList<>(runs);
+        for (int run = 0; run < runs; run += 1) {
+            List<CharSequence> part = new ArrayList<>();
+            for (int i = run * order.length / runs; i < (run + 1) * order.length / runs; i += 1) {
+                part.add(prefixes.get(order[i]));
+            }
+            tasks.add(pool.submit(ForkJoinTask.adapt(() -> allMatchesBatch(part))));
+        }
+        List<List<CharSequence>> result = new ArrayList<>(Collections.nCopies(order.length, null));
+        for (int run = 0; run < runs; run += 1) {
+            List<List<CharSequence>> part = tasks.get(run).join();
+            int start = run * order.length / runs;
+            for (int j = 0; j < part.size(); j += 1) {
+                result.set(order[start + j], part.get(j));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a lazily-evaluated stream of the autocompletion terms that match the given prefix, so callers that only
+     * need the first few matches do not pay for the rest.
+     *
+     * @param prefix search query.
+     * @return a stream of the terms that match the prefix.
+     */
+    default Stream<CharSequence> matches(CharSequence prefix) {
+        return allMatches(prefix).stream();
+    }
+
+    /**
+     * Returns the number of autocompletion terms that match the given prefix. The default implementation walks every
+     * match, so its cost grows with the number of matches; implementations that can count a prefix range or subtree
+     * directly override it.
+     *
+     * @param prefix search query.
+     * @return the number of terms that match the prefix.
+     */
+    default int countMatches(CharSequence prefix) {
+        return (int) matches(prefix).count();
+    }
+
+    /**
+     * Returns the number of autocompletion terms that match the given prefix, reporting the index nodes or entries
+     * the search visits to the given sink. Indexes that do not count their visits report none.
+     *
+     * @param prefix search query.
+     * @param visits sink for the number of nodes or entries visited.
+     * @return the number of terms that match the prefix.
+     */
+    default int countMatches(CharSequence prefix, VisitSink visits) {
+        return countMatches(prefix);
+    }
+
+    /**
+     * Returns up to k autocompletion terms that match the given prefix in descending order of weight.
+     *
+     * @param prefix search query.
+     * @param k      maximum number of terms to return.
+     * @return a list of the k highest-weight terms that match the prefix.
+     */
+    List<CharSequence> topMatches(CharSequence prefix, int k);
+
+    /**
+     * Returns up to k autocompletion terms that match the given prefix in descending order of weight, reporting the
+     * index nodes or entries the search visits to the given sink. Indexes that do not count their visits report none.
+     *
+     * @param prefix search query.
+     * @param k      maximum number of terms to return.
+     * @param visits sink for the number of nodes or entries visited.
+     * @return a list of the k highest-weight terms that match the prefix.
+     */
+    default List<CharSequence> topMatches(CharSequence prefix, int k, VisitSink visits) {
+        return topMatches(prefix, k);
+    }
+
+    /**
+     * Returns the estimated number of bytes retained by this index, excluding term objects that it shares with the
+     * caller rather than copying.
+     *
+     * @return the estimated memory footprint of this index in bytes, or a negative number if it cannot be estimated.
+     */
+    default long memoryFootprint() {
+        return -1;
+    }
+
+    /**
+     * Returns true if and only if the given term matches the given prefix.
+     *
+     * @param prefix prefix template.
+     * @param term term to check against the prefix.
+     * @return true if and only if the given term matches the given prefix.
+     */
+    static boolean isPrefixOf(CharSequence prefix, CharSequence term) {
+        if (prefix.length() > term.length()) {
+            return false;
+        }
+        // Compare in place rather than through subSequence, which allocates a new sequence on every call.
+        for (int i = 0; i < prefix.length(); i += 1) {
+            if (prefix.charAt(i) != term.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns up to k of the given matches in descending order of weight by keeping only the best k in a bounded heap.
+     *
+     * @param matches terms to select from.
+     * @param weight  function returning the weight of each term.
+     * @param k       maximum number of terms to return.
+     * @return a list of the k highest-weight matches.
+     */
+    static List<CharSequence> topK(Iterable<? extends CharSequence> matches, ToDoubleFunction<CharSequence> weight,
+                                   int k) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        Comparator<CharSequence> byWeight = Comparator.comparingDouble(weight);
+        PriorityQueue<CharSequence> best = new PriorityQueue<>(byWeight);
+        for (CharSequence term : matches) {
+            if (best.size() < k) {
+                best.add(term);
+            } else if (weight.applyAsDouble(term) > weight.applyAsDouble(best.peek())) {
+                best.remove();
+                best.add(term);
+            }
+        }
+        List<CharSequence> result = new ArrayList<>(best);
+        result.sort(byWeight.reversed());
+        return result;
+    }
+}
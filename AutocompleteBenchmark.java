@@ -0,0 +1,229 @@
+package autocomplete;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * JMH benchmarks comparing the build time, query throughput, query latency, and allocation per query of each
+ * {@link Autocomplete} implementation on synthetic city-name and DNA datasets. Run {@link #main(String[])} to measure
+ * every combination of parameters with the GC profiler, which reports the bytes allocated per operation.
+ *
+ * @see Autocomplete
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutocompleteBenchmark {
+    /**
+     * Syllables combined to generate city-name-like terms.
+     */
+    private static final String[] SYLLABLES = {
+            "an", "ber", "bo", "ca", "chi", "da", "el", "fort", "gar", "ham", "is", "ka", "la", "lin", "mar", "mon",
+            "na", "new", "o", "pa", "port", "ra", "ri", "san", "sea", "ston", "ta", "ton", "ville", "wood", "york"
+    };
+    /**
+     * Length of each DNA read generated from the random sequence.
+     */
+    private static final int READ_LENGTH = 64;
+    /**
+     * Number of query prefixes sampled from the terms and cycled through by the query benchmarks.
+     */
+    private static final int PREFIXES = 1024;
+    /**
+     * Number of matches consumed by the early-terminating query benchmarks.
+     */
+    private static final int MAX_MATCHES = 10;
+
+    @Param({"TreeSet", "Sequential", "BinarySearch", "TernarySearchTree", "PackedTernarySearchTree", "Arena",
+            "DAWG"})
+    private String implementation;
+
+    @Param({"cities", "dna"})
+    private String dataset;
+
+    @Param({"10000", "100000", "1000000"})
+    private int size;
+
+    @Param({"1", "3", "6"})
+    private int prefixLength;
+
+    private Supplier<Autocomplete> factory;
+    private Map<CharSequence, Double> terms;
+    private Autocomplete autocomplete;
+    private CharSequence[] prefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        factory = factory(implementation);
+        Random random = new Random(373);
+        terms = dataset.equals("dna") ? dna(size, random) : cities(size, random);
+        autocomplete = factory.get();
+        autocomplete.addAll(terms);
+
+        // Sample query prefixes from the terms themselves so that every query has at least one match.
+        List<CharSequence> sample = terms.keySet().stream()
+                .filter(term -> term.length() >= prefixLength)
+                .collect(Collectors.toList());
+        prefixes = new CharSequence[PREFIXES];
+        for (int i = 0; i < PREFIXES; i += 1) {
+            prefixes[i] = sample.get(random.nextInt(sample.size())).subSequence(0, prefixLength).toString();
+        }
+        next = 0;
+    }
+
+    /**
+     * Returns the next query prefix, cycling through the sampled prefixes.
+     */
+    private CharSequence nextPrefix() {
+        next = (next + 1) & (PREFIXES - 1);
+        return prefixes[next];
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Autocomplete build() {
+        Autocomplete result = factory.get();
+        result.addAll(terms);
+        return result;
+    }
+
+    @Benchmark
+    public List<CharSequence> allMatches() {
+        return autocomplete.allMatches(nextPrefix());
+    }
+
+    @Benchmark
+    public List<CharSequence> firstMatches() {
+        return autocomplete.matches(nextPrefix()).limit(MAX_MATCHES).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public int countMatches() {
+        return autocomplete.countMatches(nextPrefix());
+    }
+
+    @Benchmark
+    public List<CharSequence> topMatches() {
+        return autocomplete.topMatches(nextPrefix(), MAX_MATCHES);
+    }
+
+    /**
+     * Returns a factory for empty instances of the named implementation.
+     */
+    private static Supplier<Autocomplete> factory(String implementation) {
+        switch (implementation) {
+            case "TreeSet":
+                return TreeSetAutocomplete::new;
+            case "Sequential":
+                return SequentialSearchAutocomplete::new;
+            case "BinarySearch":
+                return BinarySearchAutocomplete::new;
+            case "TernarySearchTree":
+                return TernarySearchTreeAutocomplete::new;
+            case "PackedTernarySearchTree":
+                return PackedTernarySearchTreeAutocomplete::new;
+            case "Arena":
+                return ArenaAutocomplete::new;
+            case "DAWG":
+                return DAWGAutocomplete::new;
+            default:
+                throw new IllegalArgumentException("unknown implementation " + implementation);
+        }
+    }
+
+    /**
+     * Returns the given number of distinct city-name-like terms with population-like weights.
+     */
+    private static Map<CharSequence, Double> cities(int size, Random random) {
+        Map<CharSequence, Double> result = new HashMap<>(size * 2);
+        while (result.size() < size) {
+            StringBuilder name = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int i = 0; i < syllables; i += 1) {
+                name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+            if (random.nextInt(4) == 0) {
+                name.append(' ').append(random.nextInt(size));
+            }
+            // Heavy-tailed weights, like city populations.
+            result.put(name.toString(), Math.floor(1000 / Math.pow(random.nextDouble() + 1e-6, 1.5)));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the given number of overlapping fixed-length reads of a random DNA sequence with random weights. Each
+     * read is a zero-copy view of the sequence, like the suffixes in {@code DNASearch}.
+     */
+    private static Map<CharSequence, Double> dna(int size, Random random) {
+        char[] bases = {'A', 'C', 'G', 'T'};
+        StringBuilder sequence = new StringBuilder(size + READ_LENGTH);
+        for (int i = 0; i < size + READ_LENGTH; i += 1) {
+            sequence.append(bases[random.nextInt(bases.length)]);
+        }
+        String data = sequence.toString();
+        Map<CharSequence, Double> result = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i += 1) {
+            result.put(new Read(data, i), random.nextDouble());
+        }
+        return result;
+    }
+
+    /**
+     * A fixed-length window into a DNA sequence.
+     */
+    private static class Read implements CharSequence {
+        private final String data;
+        private final int offset;
+
+        Read(String data, int offset) {
+            this.data = data;
+            this.offset = offset;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return data.charAt(offset + index);
+        }
+
+        @Override
+        public int length() {
+            return READ_LENGTH;
+        }
+
+        @Override
+        public CharSequence subSequence(int begin, int end) {
+            return data.subSequence(offset + begin, offset + end);
+        }
+
+        @Override
+        public String toString() {
+            return data.substring(offset, offset + READ_LENGTH);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AutocompleteBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
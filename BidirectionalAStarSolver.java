@@ -0,0 +1,207 @@
+package graphs.shortestpaths;
+
+import graphs.AStarGraph;
+import graphs.Edge;
+import graphs.Graph;
+import minpq.DoubleMapMinPQ;
+import minpq.MinPQ;
+
+import java.util.*;
+
+/**
+ * Bidirectional A* search implementation for single-pair shortest paths in an {@link AStarGraph}. A forward search
+ * from the start and a reverse search from the goal take turns removing one vertex each, and every path found where
+ * the two searches meet is a candidate route.
+ * <p>
+ * Both searches use the balanced potential p(v) = (h(v, goal) - h(start, v)) / 2, forward, and its negation, reverse.
+ * These average the two heuristics, so with a consistent heuristic both searches see the same non-negative reduced
+ * edge weights. The search then stops as soon as the sum of the minimum priorities of the two perimeters reaches the
+ * length of the best candidate, since no path through unsettled vertices can be shorter.
+ *
+ * @param <V> the type of vertices.
+ * @see AStarGraph
+ * @see AStarSolver
+ */
+public class BidirectionalAStarSolver<V> {
+    private final Map<V, Edge<V>> edgeTo;
+    private final Map<V, Double> distTo;
+    /**
+     * For each vertex reached by the reverse search, the edge of the original graph leaving it toward the goal.
+     */
+    private final Map<V, Edge<V>> edgeFrom;
+    private final Map<V, Double> distFrom;
+    private final Set<V> settledForward;
+    private final Set<V> settledReverse;
+    private final AStarGraph<V> graph;
+    private final V start;
+    private final V goal;
+    /**
+     * The vertex where the best candidate path found so far crosses from the forward to the reverse search, or null.
+     */
+    private V meeting;
+    /**
+     * The length of the best candidate path found so far.
+     */
+    private double best;
+
+    /**
+     * Constructs a new instance by executing bidirectional A* search on the graph from the start to the goal. Every
+     * edge in the graph must have a reverse edge of the same weight, as in a road network where streets are drivable
+     * in both directions, and the heuristic of the graph must be consistent.
+     *
+     * @param graph the input graph.
+     * @param start the start vertex.
+     * @param goal  the goal vertex.
+     */
+    public BidirectionalAStarSolver(AStarGraph<V> graph, V start, V goal) {
+        this(graph, graph, start, goal);
+    }
+
+    /**
+     * Constructs a new instance by executing bidirectional A* search on the graph from the start to the goal. The
+     * heuristic of the graph must be consistent.
+     *
+     * @param graph   the input graph.
+     * @param reverse the reverse of the input graph, which has an edge from v to u with weight w for each edge from u
+     *                to v with weight w in the input graph.
+     * @param start   the start vertex.
+     * @param goal    the goal vertex.
+     */
+    public BidirectionalAStarSolver(AStarGraph<V> graph, Graph<V> reverse, V start, V goal) {
+        edgeTo = new HashMap<>();
+        distTo = new HashMap<>();
+        edgeFrom = new HashMap<>();
+        distFrom = new HashMap<>();
+        settledForward = new HashSet<>();
+        settledReverse = new HashSet<>();
+        this.graph = graph;
+        this.start = start;
+        this.goal = goal;
+        meeting = null;
+        best = Double.POSITIVE_INFINITY;
+        MinPQ<V> forward = new DoubleMapMinPQ<>();
+        MinPQ<V> backward = new DoubleMapMinPQ<>();
+        forward.add(start, potential(start));
+        edgeTo.put(start, null);
+        distTo.put(start, 0.0);
+        backward.add(goal, -potential(goal));
+        edgeFrom.put(goal, null);
+        distFrom.put(goal, 0.0);
+        if (start.equals(goal)) {
+            meeting = start;
+            best = 0.0;
+        }
+        boolean forwardTurn = true;
+        while (!forward.isEmpty() && !backward.isEmpty()) {
+            V minForward = forward.peekMin();
+            V minBackward = backward.peekMin();
+            double bound = distTo.get(minForward) + potential(minForward)
+                    + distFrom.get(minBackward) - potential(minBackward);
+            if (bound >= best) {
+                return;
+            }
+            if (forwardTurn) {
+                expandForward(forward);
+            } else {
+                expandReverse(reverse, backward);
+            }
+            forwardTurn = !forwardTurn;
+        }
+    }
+
+    /**
+     * Removes the minimum vertex of the forward perimeter and relaxes its outgoing edges.
+     */
+    private void expandForward(MinPQ<V> forward) {
+        V from = forward.removeMin();
+        settledForward.add(from);
+        for (Edge<V> e : graph.neighbors(from)) {
+            V to = e.to;
+            if (settledForward.contains(to)) {
+                continue;
+            }
+            double oldDist = distTo.getOrDefault(to, Double.POSITIVE_INFINITY);
+            double newDist = distTo.get(from) + e.weight;
+            if (newDist < oldDist) {
+                edgeTo.put(to, e);
+                distTo.put(to, newDist);
+                forward.addOrChangePriority(to, newDist + potential(to));
+                Double remaining = distFrom.get(to);
+                if (remaining != null && newDist + remaining < best) {
+                    best = newDist + remaining;
+                    meeting = to;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the minimum vertex of the reverse perimeter and relaxes its outgoing edges in the reverse graph.
+     */
+    private void expandReverse(Graph<V> reverse, MinPQ<V> backward) {
+        V to = backward.removeMin();
+        settledReverse.add(to);
+        for (Edge<V> e : reverse.neighbors(to)) {
+            V from = e.to;
+            if (settledReverse.contains(from)) {
+                continue;
+            }
+            double oldDist = distFrom.getOrDefault(from, Double.POSITIVE_INFINITY);
+            double newDist = distFrom.get(to) + e.weight;
+            if (newDist < oldDist) {
+                edgeFrom.put(from, new Edge<>(from, to, e.weight));
+                distFrom.put(from, newDist);
+                backward.addOrChangePriority(from, newDist - potential(from));
+                Double travelled = distTo.get(from);
+                if (travelled != null && travelled + newDist < best) {
+                    best = travelled + newDist;
+                    meeting = from;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the balanced forward potential of the given vertex. The reverse potential is its negation.
+     */
+    private double potential(V vertex) {
+        return (graph.estimatedDistance(vertex, goal) - graph.estimatedDistance(start, vertex)) / 2;
+    }
+
+    /**
+     * Returns the single-pair shortest path from the stored start to the stored goal. If the goal is unreachable,
+     * returns a path containing only the goal, as {@link AStarSolver#solution()} does.
+     *
+     * @return a list of vertices representing the shortest path.
+     */
+    public List<V> solution() {
+        List<V> path = new ArrayList<>();
+        if (meeting == null) {
+            path.add(goal);
+            return path;
+        }
+        V curr = meeting;
+        path.add(curr);
+        while (edgeTo.get(curr) != null) {
+            curr = edgeTo.get(curr).from;
+            path.add(curr);
+        }
+        Collections.reverse(path);
+        curr = meeting;
+        while (edgeFrom.get(curr) != null) {
+            curr = edgeFrom.get(curr).to;
+            path.add(curr);
+        }
+        return path;
+    }
+
+    /**
+     * Returns the number of vertices removed from either perimeter and expanded, which measures the work done by the
+     * search.
+     *
+     * @return the number of vertices expanded.
+     */
+    public int settledCount() {
+        return settledForward.size() + settledReverse.size();
+    }
+}
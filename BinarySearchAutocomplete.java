@@ -1,44 +1,305 @@
-package autocomplete;
-
-import java.util.*;
-
-/**
- * Binary search implementation of the {@link Autocomplete} interface.
- *
- * @see Autocomplete
- */
-public class BinarySearchAutocomplete implements Autocomplete {
-    /**
-     * {@link List} of added autocompletion terms.
-     */
-    private final List<CharSequence> elements;
-
-    /**
-     * Constructs an empty instance.
-     */
-    public BinarySearchAutocomplete() {
-        elements = new ArrayList<>();
-    }
-
-    @Override
-    public void addAll(Collection<? extends CharSequence> terms) {
-        // TODO: Replace with your code
-        elements.addAll(terms);
-        Collections.sort(elements,CharSequence::compare);
-    }
-
-    @Override
-    public List<CharSequence> allMatches(CharSequence prefix) {
-        List<CharSequence> result = new ArrayList<>();
-        int i = Collections.binarySearch(elements, prefix, CharSequence::compare);
-        if (i < 0) {
-            i = -i - 1;
-        }
-        while (Autocomplete.isPrefixOf(prefix, elements.get(i))) {
-            result.add(elements.get(i));
-            i++;
-        }
-        return result;
-    }
-
-}
+package autocomplete;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Binary search implementation of the {@link Autocomplete} interface. Removed terms are marked with tombstones rather
+ * than shifted out of the sorted list, and the list is compacted once tombstones make up a quarter of it.
+ *
+ * @see Autocomplete
+ */
+public class BinarySearchAutocomplete implements Autocomplete {
+    /**
+     * Batch size above which batches are sorted in parallel.
+     */
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+    /**
+     * Fraction of the sorted list that tombstones may occupy before the list is compacted.
+     */
+    private static final int COMPACTION_DIVISOR = 4;
+    /**
+     * Estimated size in bytes of a {@link TreeMap} entry and its boxed {@link Double} weight.
+     */
+    private static final int ENTRY_BYTES = 56;
+
+    /**
+     * Sorted {@link List} of added autocompletion terms. Adding terms replaces this list with a new merged list rather
+     * than modifying it, so range views returned by earlier queries remain valid.
+     */
+    private List<CharSequence> elements;
+    /**
+     * {@link Map} of added autocompletion terms to their weights.
+     */
+    private final Map<CharSequence, Double> weights;
+    /**
+     * Tombstones marking the indices of removed terms in the sorted list.
+     */
+    private BitSet removed;
+    /**
+     * The number of tombstones.
+     */
+    private int removedCount;
+
+    /**
+     * Constructs an empty instance.
+     */
+    public BinarySearchAutocomplete() {
+        elements = new ArrayList<>();
+        weights = new TreeMap<>(CharSequence::compare);
+        removed = new BitSet();
+        removedCount = 0;
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        List<CharSequence> batch = new ArrayList<>();
+        for (CharSequence term : terms) {
+            if (weights.putIfAbsent(term, 0.0) == null) {
+                batch.add(term);
+            }
+        }
+        merge(batch);
+    }
+
+    @Override
+    public void addAll(Map<? extends CharSequence, Double> terms) {
+        List<CharSequence> batch = new ArrayList<>();
+        for (Map.Entry<? extends CharSequence, Double> entry : terms.entrySet()) {
+            if (weights.put(entry.getKey(), entry.getValue()) == null) {
+                batch.add(entry.getKey());
+            }
+        }
+        merge(batch);
+    }
+
+    /**
+     * Sorts the batch on its own and merges it with the already-sorted elements in a single linear pass, so adding a
+     * batch of m terms to n existing terms costs O(m log m + n) instead of re-sorting all n + m terms. Large batches
+     * are sorted with {@link Arrays#parallelSort}, which sorts runs in the common {@link java.util.concurrent.ForkJoinPool}
+     * and merges them in parallel. Removed terms are dropped during the merge.
+     *
+     * @param batch the unsorted terms to add.
+     */
+    private void merge(List<CharSequence> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batch.size() > PARALLEL_SORT_THRESHOLD) {
+            CharSequence[] array = batch.toArray(new CharSequence[0]);
+            Arrays.parallelSort(array, CharSequence::compare);
+            batch = Arrays.asList(array);
+        } else {
+            batch.sort(CharSequence::compare);
+        }
+        List<CharSequence> merged = new ArrayList<>(elements.size() - removedCount + batch.size());
+        int i = 0;
+        int j = 0;
+        while (i < elements.size() && j < batch.size()) {
+            if (removed.get(i)) {
+                i += 1;
+            } else if (CharSequence.compare(elements.get(i), batch.get(j)) <= 0) {
+                merged.add(elements.get(i));
+                i += 1;
+            } else {
+                merged.add(batch.get(j));
+                j += 1;
+            }
+        }
+        for (; i < elements.size(); i += 1) {
+            if (!removed.get(i)) {
+                merged.add(elements.get(i));
+            }
+        }
+        merged.addAll(batch.subList(j, batch.size()));
+        elements = merged;
+        removed = new BitSet();
+        removedCount = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Marks every copy of the term with a tombstone, compacting the sorted list once tombstones make up a quarter of
+     * it, so the amortized cost of a removal is a binary search rather than a shift of the list.
+     */
+    @Override
+    public boolean remove(CharSequence term) {
+        if (weights.remove(term) == null) {
+            return false;
+        }
+        int first = start(term, VisitSink.NONE);
+        for (int i = first; i < elements.size() && CharSequence.compare(elements.get(i), term) == 0; i += 1) {
+            if (!removed.get(i)) {
+                removed.set(i);
+                removedCount += 1;
+            }
+        }
+        if (removedCount > elements.size() / COMPACTION_DIVISOR) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the sorted list with a new list without the removed terms and clears the tombstones.
+     */
+    private void compact() {
+        List<CharSequence> compacted = new ArrayList<>(elements.size() - removedCount);
+        for (int i = 0; i < elements.size(); i += 1) {
+            if (!removed.get(i)) {
+                compacted.add(elements.get(i));
+            }
+        }
+        elements = compacted;
+        removed = new BitSet();
+        removedCount = 0;
+    }
+
+    @Override
+    public boolean updateWeight(CharSequence term, double weight) {
+        if (!weights.containsKey(term)) {
+            return false;
+        }
+        weights.put(term, weight);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns a read-only view of the range of matching terms, found with two binary searches, without copying them.
+     * Only a range that contains removed terms is copied, to leave them out.
+     */
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return allMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix, VisitSink visits) {
+        int start = start(prefix, visits);
+        return range(start, end(prefix, start, visits));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Answers the prefixes in sorted order, so the matches of each prefix start no earlier than those of the previous
+     * one and each binary search can skip the part of the list before them. A prefix of another prefix in the batch
+     * is answered first, and the longer prefix is answered by binary search within its matches.
+     */
+    @Override
+    public List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes) {
+        int[] low = {0};
+        return PrefixBatch.sortedMatches(prefixes, prefix -> {
+            int start = start(prefix, low[0], elements.size(), VisitSink.NONE);
+            low[0] = start;
+            return range(start, end(prefix, start, VisitSink.NONE));
+        });
+    }
+
+    /**
+     * Returns a read-only view of the terms between the given indices, or a copy without the removed terms if there
+     * are any in the range.
+     */
+    private List<CharSequence> range(int start, int end) {
+        int tombstone = removed.nextSetBit(start);
+        if (tombstone < 0 || tombstone >= end) {
+            return Collections.unmodifiableList(elements.subList(start, end));
+        }
+        List<CharSequence> result = new ArrayList<>(end - start);
+        for (int i = start; i < end; i += 1) {
+            if (!removed.get(i)) {
+                result.add(elements.get(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<CharSequence> matches(CharSequence prefix) {
+        return allMatches(prefix).stream();
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        return countMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix, VisitSink visits) {
+        int start = start(prefix, visits);
+        int end = end(prefix, start, visits);
+        int count = end - start;
+        for (int i = removed.nextSetBit(start); i >= 0 && i < end; i = removed.nextSetBit(i + 1)) {
+            count -= 1;
+        }
+        return count;
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        return topMatches(prefix, k, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k, VisitSink visits) {
+        return Autocomplete.topK(allMatches(prefix, visits), weights::get, k);
+    }
+
+    @Override
+    public long memoryFootprint() {
+        return (long) weights.size() * ENTRY_BYTES + (long) elements.size() * Integer.BYTES
+                + removed.size() / Byte.SIZE;
+    }
+
+    /**
+     * Returns the index of the first term that is greater than or equal to the prefix, and reports the number of
+     * probes to the given sink.
+     */
+    private int start(CharSequence prefix, VisitSink visits) {
+        return start(prefix, 0, elements.size(), visits);
+    }
+
+    /**
+     * Returns the index of the first term that is greater than or equal to the prefix, which must be between low and
+     * high (inclusive), and reports the number of probes to the given sink.
+     */
+    private int start(CharSequence prefix, int low, int high, VisitSink visits) {
+        int probes = 0;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            probes += 1;
+            if (CharSequence.compare(elements.get(middle), prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        visits.visited(probes);
+        return low;
+    }
+
+    /**
+     * Returns the index of the first term at or after the start that does not match the prefix. Matching terms are
+     * contiguous from the start, so this can also be found by binary search. Reports the number of probes to the given
+     * sink.
+     */
+    private int end(CharSequence prefix, int start, VisitSink visits) {
+        int low = start;
+        int high = elements.size();
+        int probes = 0;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            probes += 1;
+            if (Autocomplete.isPrefixOf(prefix, elements.get(middle))) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        visits.visited(probes);
+        return low;
+    }
+}
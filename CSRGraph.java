@@ -0,0 +1,315 @@
+package graphs;
+
+import java.util.*;
+
+/**
+ * Compressed sparse row (CSR) representation of a directed, edge-weighted graph. Vertices are numbered densely from 0,
+ * and the outgoing edges of each vertex are stored contiguously in three parallel primitive arrays: the edges of vertex
+ * v are at indices {@code offsets[v]} (inclusive) to {@code offsets[v + 1]} (exclusive) of {@code targets} and
+ * {@code weights}. Each edge costs 12 bytes rather than an {@link Edge} object and its list slot, and scanning the
+ * neighbors of a vertex reads consecutive memory.
+ * <p>
+ * Instances are immutable. Construct them with a {@link Builder}, or copy the part of any {@link Graph} reachable from
+ * some seed vertices with {@link #from(Graph, Collection)}. Vertices are numbered in the order they are first seen, so
+ * copying in breadth-first order also places nearby vertices near each other in the arrays.
+ *
+ * @param <V> the type of vertices.
+ * @see Graph
+ */
+public class CSRGraph<V> implements Graph<V> {
+    /**
+     * Estimated size in bytes of a {@link HashMap} entry and its boxed {@link Integer} id for each vertex.
+     */
+    private static final int VERTEX_BYTES = 52;
+    /**
+     * The vertex for each id.
+     */
+    private final List<V> vertices;
+    /**
+     * The id for each vertex.
+     */
+    private final Map<V, Integer> ids;
+    /**
+     * The start of the outgoing edges of each vertex, followed by the number of edges.
+     */
+    private final int[] offsets;
+    /**
+     * The id of the destination vertex of each edge.
+     */
+    private final int[] targets;
+    /**
+     * The weight of each edge.
+     */
+    private final double[] weights;
+
+    private CSRGraph(List<V> vertices, Map<V, Integer> ids, int[] offsets, int[] targets, double[] weights) {
+        this.vertices = vertices;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Returns a CSR copy of the part of the given graph reachable from the given seed vertices, numbering the vertices
+     * in breadth-first order.
+     *
+     * @param graph the graph to copy.
+     * @param seeds the vertices to start from.
+     * @param <V>   the type of vertices.
+     * @return a CSR copy of the reachable part of the graph.
+     */
+    public static <V> CSRGraph<V> from(Graph<V> graph, Collection<? extends V> seeds) {
+        Builder<V> builder = new Builder<>();
+        for (V seed : seeds) {
+            builder.addVertex(seed);
+        }
+        // Vertices are numbered in the order they are discovered, so visiting them by id is a breadth-first search.
+        for (int id = 0; id < builder.vertices.size(); id += 1) {
+            V from = builder.vertices.get(id);
+            for (Edge<V> e : graph.neighbors(from)) {
+                builder.addEdge(from, e.to, e.weight);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the graph with the same vertex ids and every edge reversed, as used by backward searches.
+     *
+     * @return the reverse of this graph.
+     */
+    public CSRGraph<V> reverse() {
+        int[] sources = new int[targets.length];
+        for (int v = 0; v < vertexCount(); v += 1) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e += 1) {
+                sources[e] = v;
+            }
+        }
+        int[] reverseOffsets = new int[offsets.length];
+        int[] reverseTargets = new int[targets.length];
+        double[] reverseWeights = new double[weights.length];
+        Builder.sort(targets, sources, weights, reverseOffsets, reverseTargets, reverseWeights);
+        return new CSRGraph<>(vertices, ids, reverseOffsets, reverseTargets, reverseWeights);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Allocates a new list of new {@link Edge} objects on every call. Performance-sensitive code should scan the
+     * edges by id with {@link #edgeStart(int)}, {@link #edgeEnd(int)}, {@link #target(int)} and {@link #weight(int)}.
+     */
+    @Override
+    public List<Edge<V>> neighbors(V vertex) {
+        Integer id = ids.get(vertex);
+        if (id == null) {
+            return List.of();
+        }
+        List<Edge<V>> result = new ArrayList<>(offsets[id + 1] - offsets[id]);
+        for (int e = offsets[id]; e < offsets[id + 1]; e += 1) {
+            result.add(new Edge<>(vertex, vertices.get(targets[e]), weights[e]));
+        }
+        return result;
+    }
+
+    /**
+     * Returns every vertex in this graph.
+     *
+     * @return a read-only view of the vertices.
+     */
+    public Set<V> vertices() {
+        return Collections.unmodifiableSet(ids.keySet());
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return the number of vertices.
+     */
+    public int vertexCount() {
+        return vertices.size();
+    }
+
+    /**
+     * Returns the number of edges.
+     *
+     * @return the number of edges.
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Returns the id of the given vertex.
+     *
+     * @param vertex the vertex of interest.
+     * @return the id of the vertex, or -1 if it is not in this graph.
+     */
+    public int id(V vertex) {
+        Integer id = ids.get(vertex);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the vertex with the given id.
+     *
+     * @param id the id of interest.
+     * @return the vertex with the id.
+     */
+    public V vertex(int id) {
+        return vertices.get(id);
+    }
+
+    /**
+     * Returns the index of the first outgoing edge of the given vertex.
+     *
+     * @param id the id of the vertex.
+     * @return the index of the first outgoing edge.
+     */
+    public int edgeStart(int id) {
+        return offsets[id];
+    }
+
+    /**
+     * Returns the index just past the last outgoing edge of the given vertex.
+     *
+     * @param id the id of the vertex.
+     * @return the index just past the last outgoing edge.
+     */
+    public int edgeEnd(int id) {
+        return offsets[id + 1];
+    }
+
+    /**
+     * Returns the id of the destination vertex of the given edge.
+     *
+     * @param edge the index of the edge.
+     * @return the id of the destination vertex.
+     */
+    public int target(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Returns the weight of the given edge.
+     *
+     * @param edge the index of the edge.
+     * @return the weight of the edge.
+     */
+    public double weight(int edge) {
+        return weights[edge];
+    }
+
+    /**
+     * Returns the estimated number of bytes used by this graph, excluding the vertex objects themselves. The vertex
+     * map and list are shared with {@link #reverse()}.
+     *
+     * @return the estimated memory footprint of this graph in bytes.
+     */
+    public long memoryFootprint() {
+        return (long) vertices.size() * (VERTEX_BYTES + Integer.BYTES) + (long) offsets.length * Integer.BYTES
+                + (long) targets.length * (Integer.BYTES + Double.BYTES);
+    }
+
+    /**
+     * Builder that accumulates vertices and edges in any order and then sorts the edges by their originating vertex.
+     *
+     * @param <V> the type of vertices.
+     */
+    public static class Builder<V> {
+        private final List<V> vertices;
+        private final Map<V, Integer> ids;
+        private int[] sources;
+        private int[] targets;
+        private double[] weights;
+        private int edgeCount;
+
+        /**
+         * Constructs an empty builder.
+         */
+        public Builder() {
+            vertices = new ArrayList<>();
+            ids = new HashMap<>();
+            sources = new int[16];
+            targets = new int[16];
+            weights = new double[16];
+            edgeCount = 0;
+        }
+
+        /**
+         * Adds the given vertex if it is not already present.
+         *
+         * @param vertex the vertex to add.
+         * @return the id of the vertex.
+         */
+        public int addVertex(V vertex) {
+            Integer id = ids.get(vertex);
+            if (id == null) {
+                id = vertices.size();
+                ids.put(vertex, id);
+                vertices.add(vertex);
+            }
+            return id;
+        }
+
+        /**
+         * Adds an edge between the given vertices, adding the vertices if they are not already present. Parallel edges
+         * are kept.
+         *
+         * @param from   the originating vertex.
+         * @param to     the destination vertex.
+         * @param weight the weight of the edge.
+         * @return this builder.
+         */
+        public Builder<V> addEdge(V from, V to, double weight) {
+            int source = addVertex(from);
+            int target = addVertex(to);
+            if (edgeCount == sources.length) {
+                sources = Arrays.copyOf(sources, edgeCount * 2);
+                targets = Arrays.copyOf(targets, edgeCount * 2);
+                weights = Arrays.copyOf(weights, edgeCount * 2);
+            }
+            sources[edgeCount] = source;
+            targets[edgeCount] = target;
+            weights[edgeCount] = weight;
+            edgeCount += 1;
+            return this;
+        }
+
+        /**
+         * Returns a graph containing the vertices and edges added so far.
+         *
+         * @return a new {@link CSRGraph}.
+         */
+        public CSRGraph<V> build() {
+            int[] offsets = new int[vertices.size() + 1];
+            int[] sortedTargets = new int[edgeCount];
+            double[] sortedWeights = new double[edgeCount];
+            sort(Arrays.copyOf(sources, edgeCount), Arrays.copyOf(targets, edgeCount),
+                    Arrays.copyOf(weights, edgeCount), offsets, sortedTargets, sortedWeights);
+            return new CSRGraph<>(new ArrayList<>(vertices), new HashMap<>(ids), offsets, sortedTargets,
+                    sortedWeights);
+        }
+
+        /**
+         * Counting sort of the given edges by source into the given output arrays, keeping edges with the same source
+         * in their original order.
+         */
+        private static void sort(int[] sources, int[] targets, double[] weights,
+                                 int[] offsets, int[] sortedTargets, double[] sortedWeights) {
+            for (int source : sources) {
+                offsets[source + 1] += 1;
+            }
+            for (int v = 0; v + 1 < offsets.length; v += 1) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+            for (int e = 0; e < sources.length; e += 1) {
+                int position = next[sources[e]];
+                next[sources[e]] += 1;
+                sortedTargets[position] = targets[e];
+                sortedWeights[position] = weights[e];
+            }
+        }
+    }
+}
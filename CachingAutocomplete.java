@@ -0,0 +1,477 @@
+package autocomplete;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * {@link Autocomplete} decorator that caches the weighted matches of recent prefixes for incremental typing. Each cache
+ * entry holds every match of its prefix in descending order of weight, so a top-k query for a cached prefix is a
+ * lookup. When a prefix misses but one of its own prefixes is cached, such as "Seat" after "Sea", the cached matches
+ * are filtered instead of querying the underlying index. A prefix with too many matches, such as a single letter, is
+ * cached with only its best matches, which still answer its top-k queries but not refinements or counts.
+ * <p>
+ * Lookups read a {@link ConcurrentHashMap} and take no lock, so concurrent queries do not contend. Once the estimated
+ * size of the cache exceeds its memory budget, entries are evicted in approximately least-recently-used order by the
+ * clock algorithm: a lookup sets the referenced flag of its entry, and eviction sweeps the entries in insertion order,
+ * giving each referenced entry a second chance by clearing its flag and evicting the first unreferenced one. Only
+ * inserting and invalidating entries are serialized.
+ * <p>
+ * Only {@link #topMatches} and {@link #countMatches} are answered from the cache; the other queries go directly to the
+ * underlying index. Adding terms clears the cache, while removing or reweighting a term only drops the entries for
+ * prefixes that match it.
+ *
+ * @see Autocomplete
+ */
+public class CachingAutocomplete implements Autocomplete {
+    /**
+     * Estimated fixed size of a cache entry in bytes, including its map entry and arrays.
+     */
+    private static final int ENTRY_BYTES = 128;
+    /**
+     * Estimated size in bytes of each match in an entry: a reference in each of the two arrays.
+     */
+    private static final int MATCH_BYTES = 8;
+    /**
+     * Estimated size in bytes of a separately-allocated String key, excluding its characters.
+     */
+    private static final int KEY_BYTES = 40;
+    /**
+     * Default maximum number of matches for a prefix to be cached.
+     */
+    private static final int DEFAULT_MAX_ENTRY_MATCHES = 4096;
+
+    private final Autocomplete delegate;
+    /**
+     * Function applied to both queries and terms so that filtering agrees with the matching rules of the delegate.
+     */
+    private final Function<CharSequence, ? extends CharSequence> keyFunction;
+    /**
+     * Returns true if and only if the key of a term matches the key of a prefix, as the delegate would.
+     */
+    private final BiPredicate<CharSequence, CharSequence> matcher;
+    private final long maxBytes;
+    private final int maxEntryMatches;
+    /**
+     * Cache entries by prefix key.
+     */
+    private final Map<String, Entry> entries;
+    /**
+     * The entries in the order of the clock sweep, oldest first. Guarded by this instance.
+     */
+    private final Deque<Entry> clock;
+    /**
+     * Estimated total size of all entries in bytes. Guarded by this instance.
+     */
+    private long bytes;
+    /**
+     * Incremented whenever terms change, so that entries computed before the change are not cached after it.
+     */
+    private volatile long generation;
+
+    private final LongAdder hits;
+    private final LongAdder refinements;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    /**
+     * Constructs a cache over the given delegate with the given memory budget, matching prefixes exactly.
+     *
+     * @param delegate the underlying {@link Autocomplete}.
+     * @param maxBytes the maximum estimated size of the cache in bytes.
+     */
+    public CachingAutocomplete(Autocomplete delegate, long maxBytes) {
+        this(delegate, maxBytes, term -> term);
+    }
+
+    /**
+     * Constructs a cache over the given delegate with the given memory budget, matching a prefix to a term when the
+     * key of the term starts with the key of the prefix.
+     *
+     * @param delegate    the underlying {@link Autocomplete}.
+     * @param maxBytes    the maximum estimated size of the cache in bytes.
+     * @param keyFunction the function applied to prefixes and terms before matching, such as
+     *                    {@link NormalizedAutocomplete#normalize(CharSequence)} for a normalized delegate.
+     */
+    public CachingAutocomplete(Autocomplete delegate, long maxBytes,
+                               Function<CharSequence, ? extends CharSequence> keyFunction) {
+        this(delegate, maxBytes, keyFunction, Autocomplete::isPrefixOf);
+    }
+
+    /**
+     * Constructs a cache over the given delegate with the given memory budget, matching a prefix to a term when the
+     * given matcher accepts their keys. Every term matching a prefix must also match each shorter prefix of it.
+     *
+     * @param delegate    the underlying {@link Autocomplete}.
+     * @param maxBytes    the maximum estimated size of the cache in bytes.
+     * @param keyFunction the function applied to prefixes and terms before matching.
+     * @param matcher     returns true if and only if the key of a term, its second argument, matches the key of a
+     *                    prefix, its first argument, such as {@link InfixAutocomplete#isWordPrefixOf} for an infix
+     *                    delegate.
+     */
+    public CachingAutocomplete(Autocomplete delegate, long maxBytes,
+                               Function<CharSequence, ? extends CharSequence> keyFunction,
+                               BiPredicate<CharSequence, CharSequence> matcher) {
+        this.delegate = delegate;
+        this.keyFunction = keyFunction;
+        this.matcher = matcher;
+        this.maxBytes = maxBytes;
+        this.maxEntryMatches = DEFAULT_MAX_ENTRY_MATCHES;
+        this.entries = new ConcurrentHashMap<>();
+        this.clock = new ArrayDeque<>();
+        this.bytes = 0;
+        this.generation = 0;
+        this.hits = new LongAdder();
+        this.refinements = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        delegate.addAll(terms);
+        invalidate();
+    }
+
+    @Override
+    public void addAll(Map<? extends CharSequence, Double> terms) {
+        delegate.addAll(terms);
+        invalidate();
+    }
+
+    @Override
+    public boolean remove(CharSequence term) {
+        boolean removed = delegate.remove(term);
+        if (removed) {
+            invalidate(term);
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean updateWeight(CharSequence term, double weight) {
+        boolean updated = delegate.updateWeight(term, weight);
+        if (updated) {
+            invalidate(term);
+        }
+        return updated;
+    }
+
+    /**
+     * Removes every entry from the cache.
+     */
+    private synchronized void invalidate() {
+        generation += 1;
+        entries.clear();
+        clock.clear();
+        bytes = 0;
+    }
+
+    /**
+     * Removes only the entries for prefixes that the given term matches, since no other entry can contain it.
+     */
+    private synchronized void invalidate(CharSequence term) {
+        generation += 1;
+        CharSequence termKey = keyFunction.apply(term);
+        Iterator<Entry> iterator = clock.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (matcher.test(entry.key, termKey)) {
+                iterator.remove();
+                entries.remove(entry.key, entry);
+                bytes -= entry.size();
+            }
+        }
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return delegate.allMatches(prefix);
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix, VisitSink visits) {
+        return delegate.allMatches(prefix, visits);
+    }
+
+    @Override
+    public List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes) {
+        return delegate.allMatchesBatch(prefixes);
+    }
+
+    @Override
+    public List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes, ForkJoinPool pool) {
+        return delegate.allMatchesBatch(prefixes, pool);
+    }
+
+    @Override
+    public Stream<CharSequence> matches(CharSequence prefix) {
+        return delegate.matches(prefix);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        return countMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix, VisitSink visits) {
+        Entry entry = lookup(prefix, Integer.MAX_VALUE, visits);
+        if (entry == null) {
+            return delegate.countMatches(prefix, visits);
+        }
+        return entry.matches.length;
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        return topMatches(prefix, k, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k, VisitSink visits) {
+        Entry entry = lookup(prefix, k, visits);
+        if (entry == null) {
+            return delegate.topMatches(prefix, k, visits);
+        }
+        List<CharSequence> result = new ArrayList<>(Math.min(k, entry.matches.length));
+        for (int i = 0; i < entry.matches.length && i < k; i += 1) {
+            result.add(entry.matches[i]);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Includes the estimated size of the cache and the footprint of the underlying index.
+     */
+    @Override
+    public long memoryFootprint() {
+        long index = delegate.memoryFootprint();
+        if (index < 0) {
+            return index;
+        }
+        return index + sizeInBytes();
+    }
+
+    /**
+     * Returns the cache entry for the prefix, computing and caching it if necessary, or null if the prefix is empty or
+     * the cached entry holds fewer than the given number of its best matches. Reads take no lock.
+     *
+     * @param needed the number of best matches the caller needs, or {@link Integer#MAX_VALUE} for every match.
+     * @param visits sink for the cached matches or index nodes visited to compute the entry.
+     */
+    private Entry lookup(CharSequence prefix, int needed, VisitSink visits) {
+        if (prefix == null || prefix.length() == 0) {
+            return null;
+        }
+        long start = generation;
+        String key = keyFunction.apply(prefix).toString();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.reference();
+            if (!entry.covers(needed)) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry;
+        }
+        Entry ancestor = null;
+        for (int length = key.length() - 1; length > 0 && ancestor == null; length -= 1) {
+            ancestor = entries.get(key.substring(0, length));
+        }
+        if (ancestor != null && !ancestor.truncated) {
+            ancestor.reference();
+            refinements.increment();
+            entry = ancestor.refine(key, visits);
+        } else {
+            // Ask for one more than the limit to learn whether the prefix has too many matches to cache in full.
+            misses.increment();
+            List<CharSequence> matches = delegate.topMatches(prefix, maxEntryMatches + 1, visits);
+            if (matches.size() > maxEntryMatches) {
+                entry = new Entry(key, matches.subList(0, maxEntryMatches).toArray(new CharSequence[0]), null);
+            } else {
+                entry = new Entry(key, matches.toArray(new CharSequence[0]), keys(matches));
+            }
+        }
+        put(entry, start);
+        return entry.covers(needed) ? entry : null;
+    }
+
+    /**
+     * Returns the keys of the given matches, reusing the matches themselves when the key function returns them.
+     */
+    private CharSequence[] keys(List<CharSequence> matches) {
+        CharSequence[] keys = new CharSequence[matches.size()];
+        for (int i = 0; i < keys.length; i += 1) {
+            keys[i] = keyFunction.apply(matches.get(i));
+        }
+        return keys;
+    }
+
+    /**
+     * Caches the entry unless terms have changed since the given generation or another thread has already cached its
+     * prefix, then evicts entries until the cache fits its memory budget.
+     */
+    private synchronized void put(Entry entry, long start) {
+        if (start != generation || entry.size() > maxBytes || entries.putIfAbsent(entry.key, entry) != null) {
+            return;
+        }
+        clock.addLast(entry);
+        bytes += entry.size();
+        while (bytes > maxBytes) {
+            Entry eldest = clock.removeFirst();
+            if (eldest.referenced) {
+                // Give a recently used entry a second chance.
+                eldest.referenced = false;
+                clock.addLast(eldest);
+            } else {
+                entries.remove(eldest.key, eldest);
+                bytes -= eldest.size();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of queries answered by a cached entry for the same prefix.
+     *
+     * @return the number of exact cache hits.
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of queries answered by filtering a cached entry for a shorter prefix.
+     *
+     * @return the number of refinement hits.
+     */
+    public long refinementCount() {
+        return refinements.sum();
+    }
+
+    /**
+     * Returns the number of queries that had to query the underlying index.
+     *
+     * @return the number of cache misses.
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted to stay within the memory budget.
+     *
+     * @return the number of evictions.
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the fraction of cache lookups answered without querying the underlying index.
+     *
+     * @return the hit rate, including refinement hits, or 0 if there have been no lookups.
+     */
+    public double hitRate() {
+        long served = hits.sum() + refinements.sum();
+        long total = served + misses.sum();
+        return total == 0 ? 0.0 : (double) served / total;
+    }
+
+    /**
+     * Returns the estimated size of the cache in bytes.
+     *
+     * @return the estimated size of the cache in bytes.
+     */
+    public synchronized long sizeInBytes() {
+        return bytes;
+    }
+
+    /**
+     * Every match of a prefix in descending order of weight, alongside the key of each match, or only the best matches
+     * of a prefix with too many to cache.
+     */
+    private class Entry {
+        private final String key;
+        private final CharSequence[] matches;
+        /**
+         * The key of each match, or null if the entry is truncated.
+         */
+        private final CharSequence[] keys;
+        /**
+         * True if and only if the prefix has more matches than the entry holds.
+         */
+        private final boolean truncated;
+        /**
+         * The estimated size of the entry in bytes, including its prefix key.
+         */
+        private final long bytes;
+        /**
+         * Set by each lookup and cleared by the clock sweep.
+         */
+        private volatile boolean referenced;
+
+        Entry(String key, CharSequence[] matches, CharSequence[] keys) {
+            this.key = key;
+            this.matches = matches;
+            this.keys = keys;
+            this.truncated = keys == null;
+            long size = ENTRY_BYTES + KEY_BYTES + (long) key.length() * Character.BYTES
+                    + (long) matches.length * 2 * MATCH_BYTES;
+            for (int i = 0; !truncated && i < keys.length; i += 1) {
+                if (keys[i] != matches[i]) {
+                    size += KEY_BYTES + (long) keys[i].length() * Character.BYTES;
+                }
+            }
+            this.bytes = size;
+            this.referenced = true;
+        }
+
+        long size() {
+            return bytes;
+        }
+
+        /**
+         * Marks this entry as recently used, writing the flag only if it is clear to avoid contended writes.
+         */
+        void reference() {
+            if (!referenced) {
+                referenced = true;
+            }
+        }
+
+        /**
+         * Returns true if and only if this entry holds the given number of best matches of its prefix.
+         */
+        boolean covers(int needed) {
+            return !truncated || needed <= matches.length;
+        }
+
+        /**
+         * Returns a new entry with only the matches whose keys match the given longer key, in the same order, and
+         * reports every match it filters to the given sink.
+         */
+        Entry refine(String key, VisitSink visits) {
+            visits.visited(matches.length);
+            int count = 0;
+            CharSequence[] refinedMatches = new CharSequence[matches.length];
+            CharSequence[] refinedKeys = new CharSequence[matches.length];
+            for (int i = 0; i < matches.length; i += 1) {
+                if (matcher.test(key, keys[i])) {
+                    refinedMatches[count] = matches[i];
+                    refinedKeys[count] = keys[i];
+                    count += 1;
+                }
+            }
+            return new Entry(key, Arrays.copyOf(refinedMatches, count), Arrays.copyOf(refinedKeys, count));
+        }
+    }
+}
@@ -1,52 +1,99 @@
-import autocomplete.Autocomplete;
-import autocomplete.TreeSetAutocomplete;
-
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.util.*;
-
-/**
- * Search the world's cities.
- */
-public class CitySearch {
-    /**
-     * Maximum number of matches to print.
-     */
-    private static final int MAX_MATCHES = 10;
-    /**
-     * Maximum number of cities to parse.
-     */
-    private static final int MAX_CITIES = 1000000;
-    /**
-     * Path to the cities dataset.
-     */
-    private static final String PATH = "data/cities.tsv";
-
-    public static void main(String[] args) throws IOException {
-        Map<String, Integer> cities = new LinkedHashMap<>();
-        Scanner input = new Scanner(new FileInputStream(PATH));
-        for (int i = 0; i < MAX_CITIES && input.hasNextLine(); i += 1) {
-            Scanner line = new Scanner(input.nextLine()).useDelimiter("\t");
-            cities.put(line.next(), line.nextInt());
-        }
-        Autocomplete autocomplete = new TreeSetAutocomplete();
-        autocomplete.addAll(cities.keySet());
-
-        Scanner stdin = new Scanner(System.in);
-        System.out.print("Query: ");
-        while (stdin.hasNextLine()) {
-            String prefix = stdin.nextLine();
-            if (prefix.isEmpty()) {
-                System.exit(0);
-            }
-            List<CharSequence> matches = autocomplete.allMatches(prefix);
-            System.out.println(matches.size() + " matches");
-            matches.sort(Comparator.comparingInt(cities::get).reversed());
-            for (int i = 0; i < Math.min(matches.size(), MAX_MATCHES); i += 1) {
-                System.out.println(matches.get(i));
-            }
-            System.out.println();
-            System.out.print("Query: ");
-        }
-    }
-}
+import autocomplete.Autocomplete;
+import autocomplete.MappedAutocomplete;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Search the world's cities.
+ */
+public class CitySearch {
+    /**
+     * Maximum number of matches to print.
+     */
+    private static final int MAX_MATCHES = 10;
+    /**
+     * Maximum number of cities to parse.
+     */
+    private static final int MAX_CITIES = 1000000;
+    /**
+     * Path to the cities dataset.
+     */
+    private static final String PATH = "data/cities.tsv";
+    /**
+     * Path to the prebuilt autocomplete index, written from the cities dataset whenever it is missing or stale.
+     */
+    private static final Path INDEX_PATH = Path.of("data/cities.idx");
+
+    public static void main(String[] args) throws IOException {
+        long stamp = sourceStamp();
+        Autocomplete autocomplete = openIndex(stamp);
+        if (autocomplete == null) {
+            Map<String, Double> cities = new LinkedHashMap<>();
+            Scanner input = new Scanner(new FileInputStream(PATH));
+            for (int i = 0; i < MAX_CITIES && input.hasNextLine(); i += 1) {
+                Scanner line = new Scanner(input.nextLine()).useDelimiter("\t");
+                cities.put(line.next(), (double) line.nextInt());
+            }
+            MappedAutocomplete.write(cities, INDEX_PATH, stamp);
+            autocomplete = MappedAutocomplete.open(INDEX_PATH);
+        }
+
+        Scanner stdin = new Scanner(System.in);
+        System.out.print("Query: ");
+        while (stdin.hasNextLine()) {
+            String prefix = stdin.nextLine();
+            if (prefix.isEmpty()) {
+                System.exit(0);
+            }
+            System.out.println(autocomplete.countMatches(prefix) + " matches");
+            for (CharSequence match : autocomplete.topMatches(prefix, MAX_MATCHES)) {
+                System.out.println(match);
+            }
+            System.out.println();
+            System.out.print("Query: ");
+        }
+    }
+
+    /**
+     * Returns a stamp identifying the current version of the cities dataset and the number of cities parsed from it,
+     * so that an index built from an older dataset or with a different limit is not reused.
+     *
+     * @return the source stamp for the index.
+     * @throws IOException if the dataset cannot be read.
+     */
+    private static long sourceStamp() throws IOException {
+        Path source = Path.of(PATH);
+        long stamp = Files.getLastModifiedTime(source).toMillis();
+        stamp = 31 * stamp + Files.size(source);
+        return 31 * stamp + MAX_CITIES;
+    }
+
+    /**
+     * Opens the prebuilt index if it exists, is complete, and was built from the current dataset.
+     *
+     * @param stamp the source stamp of the current dataset.
+     * @return the prebuilt index, or null if it must be rebuilt.
+     */
+    private static Autocomplete openIndex(long stamp) {
+        if (!Files.exists(INDEX_PATH)) {
+            return null;
+        }
+        try {
+            if (Files.getLastModifiedTime(INDEX_PATH).compareTo(Files.getLastModifiedTime(Path.of(PATH))) < 0) {
+                return null;
+            }
+            MappedAutocomplete index = MappedAutocomplete.open(INDEX_PATH);
+            if (index.sourceStamp() != stamp || index.size() > MAX_CITIES) {
+                return null;
+            }
+            return index;
+        } catch (IOException e) {
+            // A partly written or outdated index file is rebuilt from the dataset.
+            return null;
+        }
+    }
+}
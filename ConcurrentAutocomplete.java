@@ -0,0 +1,319 @@
+package autocomplete;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Thread-safe implementation of the {@link Autocomplete} interface that keeps two replicas of the same index and
+ * answers every query from the published one. Queries take no locks: a query only registers itself with the replica it
+ * reads. Writes run one at a time on a background thread and modify the replicas in place, so a write costs as much as
+ * the change itself rather than a rebuild of the whole index:
+ * <ol>
+ *     <li>the change is applied to the standby replica, which no query is reading;</li>
+ *     <li>the standby replica is published with a single volatile write, so new queries see the change at once;</li>
+ *     <li>the writer waits until the queries still reading the previous replica have finished, and then applies the
+ *     same change to it, so that it becomes the up-to-date standby for the next write.</li>
+ * </ol>
+ * Queries therefore never see a partially-applied write and are never blocked by one. Results are copied before a
+ * query leaves its replica, so lazy streams and range views never observe a later write. Both replicas are kept in
+ * memory, and a change that fails must leave the index it was applied to unchanged.
+ *
+ * @see Autocomplete
+ */
+public class ConcurrentAutocomplete implements Autocomplete {
+    /**
+     * Number of times the writer checks for readers before it starts sleeping between checks.
+     */
+    private static final int SPINS = 100;
+    /**
+     * Time the writer sleeps between checks once it has stopped spinning, in nanoseconds.
+     */
+    private static final long PARK_NANOS = 50_000;
+    /**
+     * Factory for the empty indexes that back each replica.
+     */
+    private final Supplier<? extends Autocomplete> factory;
+    /**
+     * Single background thread that applies writes to both replicas in the order they were submitted.
+     */
+    private final ExecutorService writer;
+    /**
+     * The replica that queries read. Replaced only by the writer thread.
+     */
+    private volatile Replica current;
+    /**
+     * The replica that no new query reads. Accessed only by the writer thread.
+     */
+    private Replica standby;
+
+    /**
+     * Constructs an empty instance whose replicas are built by the given factory.
+     *
+     * @param factory supplier of empty {@link Autocomplete} instances, such as {@code TreeSetAutocomplete::new}. The
+     *                instances must support any {@link #remove(CharSequence)} or
+     *                {@link #updateWeight(CharSequence, double)} that is made.
+     */
+    public ConcurrentAutocomplete(Supplier<? extends Autocomplete> factory) {
+        this.factory = factory;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "autocomplete-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.current = new Replica(factory.get());
+        this.standby = new Replica(factory.get());
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        List<CharSequence> copy = new ArrayList<>(terms);
+        await(submit(index -> {
+            index.addAll(copy);
+            return null;
+        }));
+    }
+
+    @Override
+    public void addAll(Map<? extends CharSequence, Double> terms) {
+        await(addAllAsync(terms));
+    }
+
+    /**
+     * Adds the given weighted terms in the background. Queries continue to see the current terms until the replica
+     * containing these terms is published.
+     *
+     * @param terms map from each term to be added to its weight.
+     * @return a future that completes once both replicas contain the terms.
+     */
+    public CompletableFuture<Void> addAllAsync(Map<? extends CharSequence, Double> terms) {
+        Map<CharSequence, Double> copy = new HashMap<>(terms);
+        return submit(index -> {
+            index.addAll(copy);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean remove(CharSequence term) {
+        return await(submit(index -> index.remove(term)));
+    }
+
+    @Override
+    public boolean updateWeight(CharSequence term, double weight) {
+        return await(submit(index -> index.updateWeight(term, weight)));
+    }
+
+    /**
+     * Removes the given terms in the background. Queries continue to see the current terms until the replica without
+     * these terms is published.
+     *
+     * @param terms collection of terms to be removed.
+     * @return a future that completes once neither replica contains the terms.
+     */
+    public CompletableFuture<Void> removeAllAsync(Collection<? extends CharSequence> terms) {
+        List<CharSequence> copy = new ArrayList<>(terms);
+        return submit(index -> {
+            for (CharSequence term : copy) {
+                index.remove(term);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Replaces all terms with the given weighted terms in the background, such as when reloading place names. Each
+     * replica is rebuilt from scratch. Queries continue to see the current terms until the replacement is published.
+     *
+     * @param terms map from each term in the replacement index to its weight.
+     * @return a future that completes once both replicas are replaced.
+     */
+    public CompletableFuture<Void> replaceAllAsync(Map<? extends CharSequence, Double> terms) {
+        Map<CharSequence, Double> copy = new HashMap<>(terms);
+        return CompletableFuture.supplyAsync(() -> {
+            Replica replacement = new Replica(factory.get());
+            replacement.index.addAll(copy);
+            Replica previous = current;
+            current = replacement;
+            previous.awaitReaders();
+            standby = new Replica(factory.get());
+            standby.index.addAll(copy);
+            return null;
+        }, writer);
+    }
+
+    /**
+     * Schedules the writer thread to apply a change to the standby replica, publish it, and then apply the same change
+     * to the previously published replica once no query is reading it.
+     *
+     * @param change function that applies the write to an index and returns its result.
+     * @return a future that completes with the result of the change once both replicas reflect it.
+     */
+    private <T> CompletableFuture<T> submit(Function<Autocomplete, T> change) {
+        return CompletableFuture.supplyAsync(() -> {
+            T result = change.apply(standby.index);
+            Replica previous = current;
+            current = standby;
+            previous.awaitReaders();
+            change.apply(previous.index);
+            standby = previous;
+            return result;
+        }, writer);
+    }
+
+    /**
+     * Waits for the given write to complete, rethrowing any exception it raised.
+     */
+    private static <T> T await(CompletableFuture<T> write) {
+        try {
+            return write.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the given query against the published replica, registering as its reader so that the writer does not
+     * modify the replica until the query returns.
+     */
+    private <T> T read(Function<Autocomplete, T> query) {
+        while (true) {
+            Replica replica = current;
+            replica.arrivals.increment();
+            try {
+                // The writer may have published the other replica before this reader registered.
+                if (replica == current) {
+                    return query.apply(replica.index);
+                }
+            } finally {
+                replica.departures.increment();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Includes both replicas.
+     */
+    @Override
+    public long memoryFootprint() {
+        long published = read(Autocomplete::memoryFootprint);
+        if (published < 0) {
+            return published;
+        }
+        return 2 * published;
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return read(index -> new ArrayList<>(index.allMatches(prefix)));
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix, VisitSink visits) {
+        return read(index -> new ArrayList<>(index.allMatches(prefix, visits)));
+    }
+
+    @Override
+    public List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes) {
+        return read(index -> copy(index.allMatchesBatch(prefixes)));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Every prefix is answered against the same replica, and writes to the other replica may proceed meanwhile.
+     */
+    @Override
+    public List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes, ForkJoinPool pool) {
+        return read(index -> copy(index.allMatchesBatch(prefixes, pool)));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The matches are collected before the query leaves its replica, so the stream is not lazy.
+     */
+    @Override
+    public Stream<CharSequence> matches(CharSequence prefix) {
+        return allMatches(prefix).stream();
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        return read(index -> index.countMatches(prefix));
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix, VisitSink visits) {
+        return read(index -> index.countMatches(prefix, visits));
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        return read(index -> new ArrayList<>(index.topMatches(prefix, k)));
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k, VisitSink visits) {
+        return read(index -> new ArrayList<>(index.topMatches(prefix, k, visits)));
+    }
+
+    /**
+     * Returns copies of the given lists, which may be views of an index.
+     */
+    private static List<List<CharSequence>> copy(List<List<CharSequence>> lists) {
+        List<List<CharSequence>> result = new ArrayList<>(lists.size());
+        for (List<CharSequence> list : lists) {
+            result.add(new ArrayList<>(list));
+        }
+        return result;
+    }
+
+    /**
+     * One copy of the index and the number of queries that have started and finished reading it.
+     */
+    private static class Replica {
+        private final Autocomplete index;
+        /**
+         * The queries that have started and finished reading this replica. Each counter only grows, so a sum read
+         * while queries are updating it is still a count from some moment during the read.
+         */
+        private final LongAdder arrivals;
+        private final LongAdder departures;
+
+        Replica(Autocomplete index) {
+            this.index = index;
+            this.arrivals = new LongAdder();
+            this.departures = new LongAdder();
+        }
+
+        /**
+         * Waits until no query that started before this replica was unpublished is still reading it. Departures are
+         * summed before arrivals, so equal sums mean every query that had arrived by the second sum had departed by the
+         * first. The writer spins briefly, since most queries finish within microseconds, and then sleeps between
+         * checks.
+         */
+        void awaitReaders() {
+            for (int i = 0; departures.sum() != arrivals.sum(); i += 1) {
+                if (i < SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+        }
+    }
+}
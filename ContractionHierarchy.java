@@ -0,0 +1,719 @@
+package graphs.shortestpaths;
+
+import graphs.CSRGraph;
+import graphs.Graph;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+/**
+ * Contraction hierarchy for fast single-pair shortest paths in a fixed graph. Preprocessing contracts the vertices one
+ * at a time from least to most important: contracting a vertex removes it from the remaining graph and, for each pair
+ * of its neighbors whose shortest path ran through it, adds a shortcut edge of the same length between them. Each
+ * vertex's rank is the order in which it was contracted.
+ * <p>
+ * A query then runs Dijkstra's algorithm forward from the start and backward from the goal, each following only edges
+ * toward higher-ranked vertices. Every shortest path has a highest-ranked vertex where the two searches meet, and since
+ * only the few most important vertices are reachable upward, each search settles a small part of the graph. Shortcuts
+ * on the resulting path are unpacked back into the original edges.
+ * <p>
+ * Vertices are ordered by twice their edge difference, the number of shortcuts contracting them would add minus the
+ * number of edges it would remove, plus the number of their neighbors already contracted and their level in the
+ * hierarchy so far, which spread contraction evenly across the graph and keep upward searches shallow. Each round
+ * contracts, in parallel, every vertex ordered before all of its remaining neighbors. These vertices are not adjacent,
+ * so their contractions are independent, and only their neighbors need new priorities for the next round. Searches
+ * for witness paths, which make a shortcut unnecessary, settle a bounded number of vertices, so some unnecessary
+ * shortcuts may be added, but none that is needed is ever omitted.
+ *
+ * @param <V> the type of vertices.
+ * @see CSRGraph
+ * @see BidirectionalAStarSolver
+ */
+public class ContractionHierarchy<V> {
+    /**
+     * Index representing the absence of a vertex or edge, and the middle vertex of an edge that is not a shortcut.
+     */
+    private static final int NONE = -1;
+    /**
+     * Maximum number of vertices settled by each witness search.
+     */
+    private static final int WITNESS_SETTLE_LIMIT = 256;
+    private final CSRGraph<V> graph;
+    /**
+     * The id of the vertex with each rank. All other arrays are indexed by rank rather than by id.
+     */
+    private final int[] vertexAt;
+    /**
+     * The rank of the vertex with each id.
+     */
+    private final int[] rankOf;
+    /**
+     * For each vertex, its edges to higher-ranked vertices: the edges of the vertex of rank r are at indices
+     * {@code upOffsets[r]} (inclusive) to {@code upOffsets[r + 1]} (exclusive).
+     */
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final double[] upWeights;
+    /**
+     * The rank of the vertex that each shortcut edge bypasses, or {@link #NONE} for an original edge.
+     */
+    private final int[] upMiddles;
+    /**
+     * For each vertex, the edges from higher-ranked vertices into it, used by the backward search.
+     */
+    private final int[] downOffsets;
+    private final int[] downSources;
+    private final double[] downWeights;
+    private final int[] downMiddles;
+    private final int shortcutCount;
+
+    /**
+     * Constructs a contraction hierarchy of the part of the graph reachable from the given vertices, contracting
+     * vertices in parallel in the common pool.
+     *
+     * @param graph    the input graph.
+     * @param vertices the vertices whose reachable part of the graph to include.
+     */
+    public ContractionHierarchy(Graph<V> graph, Collection<? extends V> vertices) {
+        this(graph instanceof CSRGraph ? (CSRGraph<V>) graph : CSRGraph.from(graph, vertices),
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a contraction hierarchy of the given graph, contracting vertices in parallel in the given pool.
+     *
+     * @param graph the input graph.
+     * @param pool  the pool in which to contract independent vertices in parallel.
+     */
+    public ContractionHierarchy(CSRGraph<V> graph, ForkJoinPool pool) {
+        this.graph = graph;
+        int n = graph.vertexCount();
+        Contraction contraction = new Contraction(graph, pool);
+        vertexAt = contraction.order;
+        rankOf = contraction.rankOf;
+        shortcutCount = contraction.shortcutCount;
+        upOffsets = new int[n + 1];
+        downOffsets = new int[n + 1];
+        upTargets = contraction.up.toRanks(rankOf, upOffsets);
+        upWeights = contraction.up.weights();
+        upMiddles = contraction.up.middles(rankOf);
+        downSources = contraction.down.toRanks(rankOf, downOffsets);
+        downWeights = contraction.down.weights();
+        downMiddles = contraction.down.middles(rankOf);
+    }
+
+    /**
+     * Returns the shortest path from the start to the goal. If the goal is unreachable, returns a path containing only
+     * the goal, as {@link AStarSolver#solution()} does.
+     *
+     * @param start the start vertex.
+     * @param goal  the goal vertex.
+     * @return a list of vertices representing the shortest path.
+     */
+    public List<V> shortestPath(V start, V goal) {
+        try (SearchWorkspace forward = SearchWorkspace.acquire(vertexAt.length);
+             SearchWorkspace backward = SearchWorkspace.acquire(vertexAt.length)) {
+            int meeting = search(forward, backward, start, goal);
+            List<V> path = new ArrayList<>();
+            if (meeting == NONE) {
+                path.add(goal);
+                return path;
+            }
+            // Collect the upward edges of the forward search from the start to the meeting vertex.
+            Deque<Integer> forwardEdges = new ArrayDeque<>();
+            for (int r = meeting; forward.parent(r) != NONE; r = forward.parent(r)) {
+                forwardEdges.push(forward.parentEdge(r));
+            }
+            int from = rankOf[graph.id(start)];
+            path.add(start);
+            for (int e : forwardEdges) {
+                unpack(from, upTargets[e], upMiddles[e], path);
+                from = upTargets[e];
+            }
+            for (int r = meeting; backward.parent(r) != NONE; r = backward.parent(r)) {
+                int e = backward.parentEdge(r);
+                unpack(r, backward.parent(r), downMiddles[e], path);
+            }
+            return path;
+        }
+    }
+
+    /**
+     * Returns the length of the shortest path from the start to the goal.
+     *
+     * @param start the start vertex.
+     * @param goal  the goal vertex.
+     * @return the shortest-path distance, or {@link Double#POSITIVE_INFINITY} if the goal is unreachable.
+     */
+    public double distance(V start, V goal) {
+        try (SearchWorkspace forward = SearchWorkspace.acquire(vertexAt.length);
+             SearchWorkspace backward = SearchWorkspace.acquire(vertexAt.length)) {
+            int meeting = search(forward, backward, start, goal);
+            if (meeting == NONE) {
+                return Double.POSITIVE_INFINITY;
+            }
+            return forward.distance(meeting) + backward.distance(meeting);
+        }
+    }
+
+    /**
+     * Runs the upward searches from the start and goal, alternating between them. Each search stops once its next
+     * vertex is no closer than the best meeting distance found so far. Both workspaces must be freshly reset.
+     *
+     * @return the rank of the highest vertex on the shortest path, or {@link #NONE} if the goal is unreachable.
+     */
+    private int search(SearchWorkspace forward, SearchWorkspace backward, V start, V goal) {
+        int startId = graph.id(start);
+        int goalId = graph.id(goal);
+        if (startId < 0 || goalId < 0) {
+            return NONE;
+        }
+        forward.relax(rankOf[startId], 0.0, NONE, NONE, 0.0);
+        backward.relax(rankOf[goalId], 0.0, NONE, NONE, 0.0);
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = NONE;
+        boolean forwardTurn = true;
+        while (!forward.isEmpty() || !backward.isEmpty()) {
+            if (forward.isEmpty() || (!backward.isEmpty() && !forwardTurn)) {
+                int r = backward.removeMin();
+                double dist = backward.distance(r);
+                if (dist >= best) {
+                    backward.stop();
+                } else {
+                    if (dist + forward.distance(r) < best) {
+                        best = dist + forward.distance(r);
+                        meeting = r;
+                    }
+                    for (int e = downOffsets[r]; e < downOffsets[r + 1]; e += 1) {
+                        double d = dist + downWeights[e];
+                        backward.relax(downSources[e], d, r, e, d);
+                    }
+                }
+            } else {
+                int r = forward.removeMin();
+                double dist = forward.distance(r);
+                if (dist >= best) {
+                    forward.stop();
+                } else {
+                    if (dist + backward.distance(r) < best) {
+                        best = dist + backward.distance(r);
+                        meeting = r;
+                    }
+                    for (int e = upOffsets[r]; e < upOffsets[r + 1]; e += 1) {
+                        double d = dist + upWeights[e];
+                        forward.relax(upTargets[e], d, r, e, d);
+                    }
+                }
+            }
+            forwardTurn = !forwardTurn;
+        }
+        return meeting;
+    }
+
+    /**
+     * Appends the original vertices after the first one on the given edge of the hierarchy to the path, recursively
+     * replacing each shortcut with the two edges it bypasses.
+     */
+    private void unpack(int from, int to, int middle, List<V> path) {
+        Deque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[]{from, to, middle});
+        while (!stack.isEmpty()) {
+            int[] edge = stack.pop();
+            if (edge[2] == NONE) {
+                path.add(graph.vertex(vertexAt[edge[1]]));
+            } else {
+                // The bypassed vertex is ranked below both ends, so the second edge leaves it upward and the first
+                // edge enters it from above.
+                int m = edge[2];
+                stack.push(new int[]{m, edge[1], upMiddle(m, edge[1])});
+                stack.push(new int[]{edge[0], m, downMiddle(m, edge[0])});
+            }
+        }
+    }
+
+    /**
+     * Returns the middle vertex of the upward edge from the given vertex to the given target.
+     */
+    private int upMiddle(int from, int to) {
+        for (int e = upOffsets[from]; e < upOffsets[from + 1]; e += 1) {
+            if (upTargets[e] == to) {
+                return upMiddles[e];
+            }
+        }
+        throw new IllegalStateException("missing edge bypassed by a shortcut");
+    }
+
+    /**
+     * Returns the middle vertex of the edge from the given higher-ranked source into the given vertex.
+     */
+    private int downMiddle(int to, int from) {
+        for (int e = downOffsets[to]; e < downOffsets[to + 1]; e += 1) {
+            if (downSources[e] == from) {
+                return downMiddles[e];
+            }
+        }
+        throw new IllegalStateException("missing edge bypassed by a shortcut");
+    }
+
+    /**
+     * Returns the number of shortcut edges added during preprocessing.
+     *
+     * @return the number of shortcuts.
+     */
+    public int shortcutCount() {
+        return shortcutCount;
+    }
+
+    /**
+     * Returns the estimated number of bytes used by the hierarchy, excluding the underlying graph and the pooled search
+     * workspaces.
+     *
+     * @return the estimated memory footprint of the hierarchy in bytes.
+     */
+    public long memoryFootprint() {
+        return (long) (vertexAt.length + rankOf.length + upOffsets.length + downOffsets.length) * Integer.BYTES
+                + (long) upTargets.length * (2 * Integer.BYTES + Double.BYTES)
+                + (long) downSources.length * (2 * Integer.BYTES + Double.BYTES);
+    }
+
+    /**
+     * Runs the given action on each index from 0 to count - 1, splitting the indices into a few runs per thread of the
+     * pool.
+     */
+    private static void parallelFor(ForkJoinPool pool, int count, IntConsumer action) {
+        int runs = Math.min(count, 4 * pool.getParallelism());
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(runs);
+        for (int run = 0; run < runs; run += 1) {
+            int begin = run * count / runs;
+            int end = (run + 1) * count / runs;
+            tasks.add(pool.submit(() -> {
+                for (int i = begin; i < end; i += 1) {
+                    action.accept(i);
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    /**
+     * The preprocessing state: the remaining graph with its shortcuts, and the hierarchy edges recorded so far.
+     */
+    private static class Contraction {
+        private final int n;
+        /**
+         * The remaining out-edges and in-edges of each vertex, by id, including shortcuts. Edges to contracted
+         * vertices are removed when those vertices are contracted.
+         */
+        private final Adjacency out;
+        private final Adjacency in;
+        private final boolean[] contracted;
+        /**
+         * Vertices being contracted in the current round, which witness searches must avoid.
+         */
+        private final boolean[] contracting;
+        private final int[] priority;
+        private final int[] contractedNeighbors;
+        /**
+         * One more than the greatest level of any contracted neighbor, which bounds the number of hierarchy edges
+         * above the vertex on an upward path.
+         */
+        private final int[] level;
+        private final boolean[] dirty;
+        /**
+         * The id of the vertex with each rank, and the rank of each id.
+         */
+        private final int[] order;
+        private final int[] rankOf;
+        /**
+         * The upward out-edges and the in-edges from above of each vertex, in order of rank, recorded by id.
+         */
+        private final EdgeList up;
+        private final EdgeList down;
+        private int shortcutCount;
+
+        Contraction(CSRGraph<?> graph, ForkJoinPool pool) {
+            n = graph.vertexCount();
+            int[] outDegree = new int[n];
+            int[] inDegree = new int[n];
+            for (int v = 0; v < n; v += 1) {
+                for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e += 1) {
+                    outDegree[v] += 1;
+                    inDegree[graph.target(e)] += 1;
+                }
+            }
+            out = new Adjacency(outDegree);
+            in = new Adjacency(inDegree);
+            for (int v = 0; v < n; v += 1) {
+                for (int e = graph.edgeStart(v); e < graph.edgeEnd(v); e += 1) {
+                    if (graph.target(e) != v) {
+                        addOrImprove(v, graph.target(e), graph.weight(e), NONE);
+                    }
+                }
+            }
+            contracted = new boolean[n];
+            contracting = new boolean[n];
+            priority = new int[n];
+            contractedNeighbors = new int[n];
+            level = new int[n];
+            dirty = new boolean[n];
+            Arrays.fill(dirty, true);
+            order = new int[n];
+            rankOf = new int[n];
+            up = new EdgeList(n);
+            down = new EdgeList(n);
+            shortcutCount = 0;
+
+            int[] remaining = new int[n];
+            for (int v = 0; v < n; v += 1) {
+                remaining[v] = v;
+            }
+            int remainingCount = n;
+            int[] selected = new int[n];
+            int[] updated = new int[n];
+            int rank = 0;
+            while (remainingCount > 0) {
+                // Simulate contracting every vertex whose neighborhood changed to find its new priority.
+                int updatedCount = 0;
+                for (int i = 0; i < remainingCount; i += 1) {
+                    if (dirty[remaining[i]]) {
+                        updated[updatedCount] = remaining[i];
+                        updatedCount += 1;
+                    }
+                }
+                parallelFor(pool, updatedCount, i -> {
+                    int v = updated[i];
+                    int shortcuts = shortcuts(v, null);
+                    priority[v] = 2 * (shortcuts - out.degree[v] - in.degree[v]) + contractedNeighbors[v] + level[v];
+                    dirty[v] = false;
+                });
+                // Contract every vertex ordered before all of its neighbors. Shortcuts are added only after every
+                // selected vertex has recorded its edges, since they connect the neighbors of the selected vertices.
+                int selectedCount = 0;
+                for (int i = 0; i < remainingCount; i += 1) {
+                    int v = remaining[i];
+                    if (isLocalMinimum(v)) {
+                        selected[selectedCount] = v;
+                        selectedCount += 1;
+                        contracting[v] = true;
+                    }
+                }
+                List<List<Shortcut>> found = new ArrayList<>(Collections.nCopies(selectedCount, null));
+                parallelFor(pool, selectedCount, i -> {
+                    List<Shortcut> shortcuts = new ArrayList<>();
+                    shortcuts(selected[i], shortcuts);
+                    found.set(i, shortcuts);
+                });
+                for (int i = 0; i < selectedCount; i += 1) {
+                    int v = selected[i];
+                    order[rank] = v;
+                    rankOf[v] = rank;
+                    rank += 1;
+                    contract(v);
+                }
+                for (int i = 0; i < selectedCount; i += 1) {
+                    for (Shortcut s : found.get(i)) {
+                        if (addOrImprove(s.from, s.to, s.weight, selected[i])) {
+                            shortcutCount += 1;
+                        }
+                    }
+                    contracting[selected[i]] = false;
+                }
+                int kept = 0;
+                for (int i = 0; i < remainingCount; i += 1) {
+                    if (!contracted[remaining[i]]) {
+                        remaining[kept] = remaining[i];
+                        kept += 1;
+                    }
+                }
+                remainingCount = kept;
+            }
+        }
+
+        /**
+         * Returns true if and only if the given vertex is ordered before every remaining neighbor, breaking ties in
+         * priority by id.
+         */
+        private boolean isLocalMinimum(int v) {
+            for (Adjacency adjacency : List.of(out, in)) {
+                for (int i = 0; i < adjacency.degree[v]; i += 1) {
+                    int x = adjacency.targets[v][i];
+                    if (priority[x] < priority[v] || (priority[x] == priority[v] && x < v)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Finds the shortcuts needed to contract the given vertex, adding them to the given list if it is not null.
+         *
+         * @return the number of shortcuts needed.
+         */
+        private int shortcuts(int v, List<Shortcut> result) {
+            int count = 0;
+            double maxOut = 0.0;
+            for (int j = 0; j < out.degree[v]; j += 1) {
+                maxOut = Math.max(maxOut, out.weights[v][j]);
+            }
+            try (SearchWorkspace search = SearchWorkspace.acquire(n)) {
+                for (int i = 0; i < in.degree[v]; i += 1) {
+                    int u = in.targets[v][i];
+                    double toV = in.weights[v][i];
+                    witness(search, u, v, toV + maxOut);
+                    for (int j = 0; j < out.degree[v]; j += 1) {
+                        int w = out.targets[v][j];
+                        double through = toV + out.weights[v][j];
+                        if (w != u && search.distance(w) > through) {
+                            count += 1;
+                            if (result != null) {
+                                result.add(new Shortcut(u, w, through));
+                            }
+                        }
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Runs a bounded Dijkstra search from the source in the remaining graph without the given vertex or any vertex
+         * being contracted. The search stops once it has settled every out-neighbor of the avoided vertex, once it is
+         * beyond the given distance, or after settling a limited number of vertices.
+         */
+        private void witness(SearchWorkspace search, int source, int avoided, double maxDist) {
+            search.reset();
+            int targets = 0;
+            for (int j = 0; j < out.degree[avoided]; j += 1) {
+                if (out.targets[avoided][j] != source) {
+                    search.mark(out.targets[avoided][j]);
+                    targets += 1;
+                }
+            }
+            search.relax(source, 0.0, NONE, NONE, 0.0);
+            int settled = 0;
+            while (!search.isEmpty() && settled < WITNESS_SETTLE_LIMIT && targets > 0) {
+                int x = search.removeMin();
+                double dist = search.distance(x);
+                if (dist > maxDist) {
+                    break;
+                }
+                settled += 1;
+                if (search.isMarked(x)) {
+                    targets -= 1;
+                }
+                for (int i = 0; i < out.degree[x]; i += 1) {
+                    int y = out.targets[x][i];
+                    if (y != avoided && !contracting[y]) {
+                        double d = dist + out.weights[x][i];
+                        search.relax(y, d, x, NONE, d);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Records the remaining edges of the given vertex as hierarchy edges, then removes the vertex from the
+         * remaining graph and marks its neighbors for a new priority.
+         */
+        private void contract(int v) {
+            contracted[v] = true;
+            up.startVertex();
+            for (int i = 0; i < out.degree[v]; i += 1) {
+                int w = out.targets[v][i];
+                up.add(w, out.weights[v][i], out.middles[v][i]);
+                in.remove(w, v);
+                contractedNeighbors[w] += 1;
+                level[w] = Math.max(level[w], level[v] + 1);
+                dirty[w] = true;
+            }
+            down.startVertex();
+            for (int i = 0; i < in.degree[v]; i += 1) {
+                int u = in.targets[v][i];
+                down.add(u, in.weights[v][i], in.middles[v][i]);
+                out.remove(u, v);
+                contractedNeighbors[u] += 1;
+                level[u] = Math.max(level[u], level[v] + 1);
+                dirty[u] = true;
+            }
+            out.degree[v] = 0;
+            in.degree[v] = 0;
+        }
+
+        /**
+         * Adds an edge to the remaining graph, or lowers the weight of the existing edge between the same vertices.
+         *
+         * @return true if and only if a new edge was added.
+         */
+        private boolean addOrImprove(int from, int to, double weight, int middle) {
+            if (out.improve(from, to, weight, middle)) {
+                in.improve(to, from, weight, middle);
+            } else if (out.indexOf(from, to) < 0) {
+                out.add(from, to, weight, middle);
+                in.add(to, from, weight, middle);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A shortcut edge found while contracting a vertex, to be added once the round's contractions are recorded.
+     */
+    private static class Shortcut {
+        private final int from;
+        private final int to;
+        private final double weight;
+
+        Shortcut(int from, int to, double weight) {
+            this.from = from;
+            this.to = to;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Growable per-vertex edge lists of the remaining graph during preprocessing, in one direction.
+     */
+    private static class Adjacency {
+        private final int[][] targets;
+        private final double[][] weights;
+        private final int[][] middles;
+        private final int[] degree;
+
+        /**
+         * Constructs empty edge lists with room for the given number of edges of each vertex.
+         */
+        Adjacency(int[] capacity) {
+            int n = capacity.length;
+            targets = new int[n][];
+            weights = new double[n][];
+            middles = new int[n][];
+            degree = new int[n];
+            for (int v = 0; v < n; v += 1) {
+                targets[v] = new int[Math.max(capacity[v], 1)];
+                weights[v] = new double[Math.max(capacity[v], 1)];
+                middles[v] = new int[Math.max(capacity[v], 1)];
+            }
+        }
+
+        int indexOf(int v, int target) {
+            for (int i = 0; i < degree[v]; i += 1) {
+                if (targets[v][i] == target) {
+                    return i;
+                }
+            }
+            return NONE;
+        }
+
+        /**
+         * Lowers the weight of the edge from v to the target if it exists and is heavier, returning true if it did.
+         */
+        boolean improve(int v, int target, double weight, int middle) {
+            int i = indexOf(v, target);
+            if (i < 0 || weights[v][i] <= weight) {
+                return false;
+            }
+            weights[v][i] = weight;
+            middles[v][i] = middle;
+            return true;
+        }
+
+        void add(int v, int target, double weight, int middle) {
+            if (degree[v] == targets[v].length) {
+                targets[v] = Arrays.copyOf(targets[v], degree[v] * 2);
+                weights[v] = Arrays.copyOf(weights[v], degree[v] * 2);
+                middles[v] = Arrays.copyOf(middles[v], degree[v] * 2);
+            }
+            targets[v][degree[v]] = target;
+            weights[v][degree[v]] = weight;
+            middles[v][degree[v]] = middle;
+            degree[v] += 1;
+        }
+
+        /**
+         * Removes the edge from v to the target by moving the last edge of v into its place.
+         */
+        void remove(int v, int target) {
+            int i = indexOf(v, target);
+            if (i >= 0) {
+                degree[v] -= 1;
+                targets[v][i] = targets[v][degree[v]];
+                weights[v][i] = weights[v][degree[v]];
+                middles[v][i] = middles[v][degree[v]];
+            }
+        }
+    }
+
+    /**
+     * Hierarchy edges recorded by id, grouped by vertex in order of rank, and converted to ranks once every vertex has
+     * one.
+     */
+    private static class EdgeList {
+        private final int[] offsets;
+        private int vertices;
+        private int[] others;
+        private double[] weights;
+        private int[] middles;
+        private int size;
+
+        EdgeList(int n) {
+            offsets = new int[n + 1];
+            vertices = 0;
+            others = new int[16];
+            weights = new double[16];
+            middles = new int[16];
+            size = 0;
+        }
+
+        /**
+         * Starts the edges of the vertex with the next rank.
+         */
+        void startVertex() {
+            offsets[vertices] = size;
+            vertices += 1;
+            offsets[vertices] = size;
+        }
+
+        void add(int other, double weight, int middle) {
+            if (size == others.length) {
+                others = Arrays.copyOf(others, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                middles = Arrays.copyOf(middles, size * 2);
+            }
+            others[size] = other;
+            weights[size] = weight;
+            middles[size] = middle;
+            size += 1;
+            offsets[vertices] = size;
+        }
+
+        /**
+         * Copies the offsets into the given array and returns the other end of each edge by rank.
+         */
+        int[] toRanks(int[] rankOf, int[] result) {
+            System.arraycopy(offsets, 0, result, 0, offsets.length);
+            int[] ranks = new int[size];
+            for (int e = 0; e < size; e += 1) {
+                ranks[e] = rankOf[others[e]];
+            }
+            return ranks;
+        }
+
+        double[] weights() {
+            return Arrays.copyOf(weights, size);
+        }
+
+        int[] middles(int[] rankOf) {
+            int[] ranks = new int[size];
+            for (int e = 0; e < size; e += 1) {
+                ranks[e] = middles[e] == NONE ? NONE : rankOf[middles[e]];
+            }
+            return ranks;
+        }
+    }
+}
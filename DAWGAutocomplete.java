@@ -0,0 +1,689 @@
+package autocomplete;
+
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Minimal acyclic automaton (directed acyclic word graph, or DAWG) implementation of the {@link Autocomplete}
+ * interface. Unlike a trie or ternary search tree, which share only common prefixes, the automaton also merges every
+ * pair of states that accept the same set of suffixes, so names ending in "Street" or "Elementary School" share a
+ * single copy of that ending.
+ * <p>
+ * The automaton is built incrementally from terms in sorted order (Daciuk et al., 2000): each new term only ever
+ * changes the path of the previous term, and the part of that path it no longer shares is minimized at once by
+ * looking each state up in a register of the states already built. Minimized states are stored in parallel primitive
+ * arrays, with the transitions of each state in one contiguous, sorted slice. A batch of terms that all sort after
+ * the greatest term so far is appended in place; any other batch rebuilds the automaton from all of the terms.
+ * <p>
+ * Each state also stores the number of terms it accepts, which numbers the terms in sorted order. The matches of a
+ * prefix are a contiguous range of these numbers, so counting them costs O(prefix) and weights are stored in one
+ * {@code double[]} indexed by number.
+ *
+ * @see Autocomplete
+ * @see TernarySearchTreeAutocomplete
+ */
+public class DAWGAutocomplete implements Autocomplete {
+    /**
+     * Initial capacity of the state and transition arrays.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * Estimated size of an array header in bytes.
+     */
+    private static final int ARRAY_HEADER_BYTES = 16;
+    /**
+     * Index representing the absence of a state.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The start of the transitions of each state. The transitions of state s end where those of state s + 1 start.
+     */
+    private int[] starts;
+    /**
+     * The number of terms accepted from each state.
+     */
+    private int[] counts;
+    /**
+     * The set of states that complete an autocompletion term.
+     */
+    private final BitSet accepting;
+    /**
+     * The number of states, including states left unreachable when an appended batch rebuilt the previous path.
+     */
+    private int stateCount;
+    /**
+     * The character and target state of each transition.
+     */
+    private char[] labels;
+    private int[] targets;
+    /**
+     * The number of transitions.
+     */
+    private int transitionCount;
+    /**
+     * The start state, or {@link #NONE} if there are no terms.
+     */
+    private int root;
+    /**
+     * The weight of each term by its number in sorted order.
+     */
+    private double[] weights;
+    /**
+     * The number of terms.
+     */
+    private int size;
+    /**
+     * The greatest term, or null if there are no terms.
+     */
+    private String last;
+
+    /**
+     * Constructs an empty instance.
+     */
+    public DAWGAutocomplete() {
+        accepting = new BitSet();
+        clear();
+    }
+
+    /**
+     * Removes every state and term.
+     */
+    private void clear() {
+        starts = new int[INITIAL_CAPACITY + 1];
+        counts = new int[INITIAL_CAPACITY];
+        accepting.clear();
+        stateCount = 0;
+        labels = new char[INITIAL_CAPACITY];
+        targets = new int[INITIAL_CAPACITY];
+        transitionCount = 0;
+        root = NONE;
+        weights = new double[INITIAL_CAPACITY];
+        size = 0;
+        last = null;
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        NavigableMap<CharSequence, Double> batch = new TreeMap<>(CharSequence::compare);
+        for (CharSequence term : terms) {
+            if (term.length() > 0 && rank(term) == NONE) {
+                batch.putIfAbsent(term, 0.0);
+            }
+        }
+        insert(batch);
+    }
+
+    @Override
+    public void addAll(Map<? extends CharSequence, Double> terms) {
+        NavigableMap<CharSequence, Double> batch = new TreeMap<>(CharSequence::compare);
+        for (Map.Entry<? extends CharSequence, Double> entry : terms.entrySet()) {
+            if (entry.getKey().length() == 0) {
+                continue;
+            }
+            int rank = rank(entry.getKey());
+            if (rank != NONE) {
+                weights[rank] = entry.getValue();
+            } else {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+        insert(batch);
+    }
+
+    /**
+     * Adds the given new terms, appending them in place if they all sort after the greatest term and otherwise
+     * rebuilding the automaton from the existing terms merged with the new terms.
+     */
+    private void insert(NavigableMap<CharSequence, Double> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (last == null || CharSequence.compare(batch.firstKey(), last) > 0) {
+            Builder builder = new Builder();
+            for (Map.Entry<CharSequence, Double> entry : batch.entrySet()) {
+                builder.append(entry.getKey(), entry.getValue());
+            }
+            builder.finish();
+            return;
+        }
+        List<CharSequence> existing = terms();
+        double[] existingWeights = Arrays.copyOf(weights, size);
+        clear();
+        Builder builder = new Builder();
+        Iterator<Map.Entry<CharSequence, Double>> added = batch.entrySet().iterator();
+        Map.Entry<CharSequence, Double> next = added.next();
+        for (int i = 0; i < existing.size(); i += 1) {
+            while (next != null && CharSequence.compare(next.getKey(), existing.get(i)) < 0) {
+                builder.append(next.getKey(), next.getValue());
+                next = added.hasNext() ? added.next() : null;
+            }
+            builder.append(existing.get(i), existingWeights[i]);
+        }
+        while (next != null) {
+            builder.append(next.getKey(), next.getValue());
+            next = added.hasNext() ? added.next() : null;
+        }
+        builder.finish();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Rebuilds the automaton without the term, so removal costs time proportional to the number of terms.
+     */
+    @Override
+    public boolean remove(CharSequence term) {
+        int rank = term == null || term.length() == 0 ? NONE : rank(term);
+        if (rank == NONE) {
+            return false;
+        }
+        List<CharSequence> existing = terms();
+        double[] existingWeights = Arrays.copyOf(weights, size);
+        clear();
+        Builder builder = new Builder();
+        for (int i = 0; i < existing.size(); i += 1) {
+            if (i != rank) {
+                builder.append(existing.get(i), existingWeights[i]);
+            }
+        }
+        builder.finish();
+        return true;
+    }
+
+    @Override
+    public boolean updateWeight(CharSequence term, double weight) {
+        int rank = term == null || term.length() == 0 ? NONE : rank(term);
+        if (rank == NONE) {
+            return false;
+        }
+        weights[rank] = weight;
+        return true;
+    }
+
+    /**
+     * Returns every term in sorted order.
+     */
+    private List<CharSequence> terms() {
+        List<CharSequence> result = new ArrayList<>(size);
+        if (root != NONE) {
+            new MatchIterator(root, "").forEachRemaining(result::add);
+        }
+        return result;
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return allMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix, VisitSink visits) {
+        List<CharSequence> result = new ArrayList<>();
+        matches(prefix, visits).forEach(result::add);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Answers a prefix of another prefix in the batch first, then finds the matches of the longer prefix by binary
+     * search within its matches.
+     */
+    @Override
+    public List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes) {
+        return PrefixBatch.sortedMatches(prefixes, this::allMatches);
+    }
+
+    @Override
+    public Stream<CharSequence> matches(CharSequence prefix) {
+        return matches(prefix, VisitSink.NONE);
+    }
+
+    /**
+     * Returns a lazily-evaluated stream of the terms that match the given prefix, reporting the states read to find
+     * them to the given sink.
+     */
+    private Stream<CharSequence> matches(CharSequence prefix, VisitSink visits) {
+        if (prefix == null || prefix.length() == 0) {
+            return Stream.empty();
+        }
+        int state = state(prefix, visits);
+        if (state == NONE) {
+            return Stream.empty();
+        }
+        return StreamSupport.stream(Spliterators.spliterator(new MatchIterator(state, prefix), counts[state],
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SIZED), false);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        return countMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix, VisitSink visits) {
+        if (prefix == null || prefix.length() == 0) {
+            return 0;
+        }
+        int state = state(prefix, visits);
+        return state == NONE ? 0 : counts[state];
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Selects the k best numbers in the contiguous range of numbers of the matching terms by weight, and only then
+     * decodes those numbers back into terms.
+     */
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        return topMatches(prefix, k, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k, VisitSink visits) {
+        List<CharSequence> result = new ArrayList<>();
+        if (prefix == null || prefix.length() == 0 || k <= 0 || root == NONE) {
+            return result;
+        }
+        int low = 0;
+        int state = root;
+        int read = 0;
+        for (int i = 0; i < prefix.length() && state != NONE; i += 1) {
+            low += skipped(state, prefix.charAt(i));
+            state = transition(state, prefix.charAt(i));
+            read += 1;
+        }
+        visits.visited(state == NONE ? read : read + counts[state]);
+        if (state == NONE) {
+            return result;
+        }
+        PriorityQueue<Integer> best = new PriorityQueue<>(Comparator.comparingDouble(rank -> weights[rank]));
+        for (int rank = low; rank < low + counts[state]; rank += 1) {
+            if (best.size() < k) {
+                best.add(rank);
+            } else if (weights[rank] > weights[best.peek()]) {
+                best.remove();
+                best.add(rank);
+            }
+        }
+        while (!best.isEmpty()) {
+            result.add(term(best.remove()));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Returns the state reached by reading the prefix from the start state, or {@link #NONE} if there is none, and
+     * reports the states read to the given sink.
+     */
+    private int state(CharSequence prefix, VisitSink visits) {
+        int state = root;
+        int read = 0;
+        for (int i = 0; i < prefix.length() && state != NONE; i += 1) {
+            state = transition(state, prefix.charAt(i));
+            read += 1;
+        }
+        visits.visited(read);
+        return state;
+    }
+
+    /**
+     * Returns the target of the transition on the given character from the given state, or {@link #NONE} if there is
+     * none, by binary search over the sorted transitions of the state.
+     */
+    private int transition(int state, char c) {
+        int low = starts[state];
+        int high = starts[state + 1];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (labels[middle] < c) {
+                low = middle + 1;
+            } else if (labels[middle] > c) {
+                high = middle;
+            } else {
+                return targets[middle];
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Returns the number of terms accepted from the given state that sort before every term continuing with the given
+     * character: the state itself, if it is accepting, and every transition on a smaller character.
+     */
+    private int skipped(int state, char c) {
+        int result = accepting.get(state) ? 1 : 0;
+        for (int t = starts[state]; t < starts[state + 1] && labels[t] < c; t += 1) {
+            result += counts[targets[t]];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of the given term in sorted order, or {@link #NONE} if it is not present.
+     */
+    private int rank(CharSequence term) {
+        if (root == NONE) {
+            return NONE;
+        }
+        int rank = 0;
+        int state = root;
+        for (int i = 0; i < term.length() && state != NONE; i += 1) {
+            rank += skipped(state, term.charAt(i));
+            state = transition(state, term.charAt(i));
+        }
+        if (state == NONE || !accepting.get(state)) {
+            return NONE;
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the term with the given number in sorted order.
+     */
+    private String term(int rank) {
+        StringBuilder result = new StringBuilder();
+        int state = root;
+        while (true) {
+            if (accepting.get(state)) {
+                if (rank == 0) {
+                    return result.toString();
+                }
+                rank -= 1;
+            }
+            int t = starts[state];
+            while (rank >= counts[targets[t]]) {
+                rank -= counts[targets[t]];
+                t += 1;
+            }
+            result.append(labels[t]);
+            state = targets[t];
+        }
+    }
+
+    /**
+     * Returns the number of states, including unreachable states left behind by appended batches.
+     *
+     * @return the number of states.
+     */
+    public int stateCount() {
+        return stateCount;
+    }
+
+    /**
+     * Returns the estimated number of bytes used by the arrays backing this automaton, including unused capacity.
+     *
+     * @return the estimated memory footprint of this automaton in bytes.
+     */
+    @Override
+    public long memoryFootprint() {
+        return ARRAY_HEADER_BYTES * 6L + (long) starts.length * Integer.BYTES + (long) counts.length * Integer.BYTES
+                + accepting.size() / Byte.SIZE + (long) labels.length * Character.BYTES
+                + (long) targets.length * Integer.BYTES + (long) weights.length * Double.BYTES;
+    }
+
+    /**
+     * Incremental construction state for appending terms in sorted order. States on the path of the most recent term
+     * are drafts that may still gain transitions; every other state has been minimized into the arrays.
+     */
+    private class Builder {
+        /**
+         * Minimized states by their signature, so that an equivalent draft is replaced by the existing state.
+         */
+        private final Map<Signature, Integer> register;
+        /**
+         * The draft for each character of the previous term, starting with the start state.
+         */
+        private Draft[] path;
+        private String previous;
+
+        /**
+         * Starts appending after the existing terms. The path of the greatest term is copied back into drafts, which
+         * leaves the states it was copied from unreachable unless they are shared or reused.
+         */
+        Builder() {
+            register = new HashMap<>();
+            for (int state = 0; state < stateCount; state += 1) {
+                register.put(new Signature(accepting.get(state), Arrays.copyOfRange(labels, starts[state],
+                        starts[state + 1]), Arrays.copyOfRange(targets, starts[state], starts[state + 1])), state);
+            }
+            previous = last == null ? "" : last;
+            path = new Draft[previous.length() + 1];
+            if (root == NONE) {
+                path[0] = new Draft();
+                return;
+            }
+            // The greatest term always follows the last transition of each state on its path.
+            path[0] = new Draft(root);
+            for (int i = 0; i < previous.length(); i += 1) {
+                path[i + 1] = new Draft(path[i].targets[path[i].size - 1]);
+                path[i].targets[path[i].size - 1] = NONE;
+            }
+        }
+
+        /**
+         * Appends a term that sorts after every term appended so far.
+         *
+         * @throws IllegalArgumentException if the term does not sort after the previous term.
+         */
+        void append(CharSequence term, double weight) {
+            if (CharSequence.compare(term, previous) <= 0) {
+                throw new IllegalArgumentException("terms out of order: " + term + " after " + previous);
+            }
+            int common = 0;
+            while (common < previous.length() && common < term.length()
+                    && previous.charAt(common) == term.charAt(common)) {
+                common += 1;
+            }
+            minimize(common);
+            if (term.length() + 1 > path.length) {
+                path = Arrays.copyOf(path, Math.max(term.length() + 1, path.length * 2));
+            }
+            for (int i = common; i < term.length(); i += 1) {
+                path[i].add(term.charAt(i));
+                path[i + 1] = new Draft();
+            }
+            path[term.length()].accepting = true;
+            previous = term.toString();
+            if (size == weights.length) {
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            weights[size] = weight;
+            size += 1;
+        }
+
+        /**
+         * Minimizes the drafts of the previous term deeper than the given depth, deepest first, linking each parent
+         * to the minimized state.
+         */
+        private void minimize(int depth) {
+            for (int i = previous.length(); i > depth; i -= 1) {
+                Draft parent = path[i - 1];
+                parent.targets[parent.size - 1] = freeze(path[i]);
+                path[i] = null;
+            }
+        }
+
+        /**
+         * Minimizes every remaining draft, including the start state, and publishes the result.
+         */
+        void finish() {
+            minimize(0);
+            root = freeze(path[0]);
+            last = previous;
+        }
+
+        /**
+         * Returns the existing state equivalent to the given draft, or stores the draft as a new state.
+         */
+        private int freeze(Draft draft) {
+            Signature signature = new Signature(draft.accepting, Arrays.copyOf(draft.labels, draft.size),
+                    Arrays.copyOf(draft.targets, draft.size));
+            Integer existing = register.get(signature);
+            if (existing != null) {
+                return existing;
+            }
+            if (stateCount == counts.length) {
+                counts = Arrays.copyOf(counts, counts.length * 2);
+                starts = Arrays.copyOf(starts, counts.length + 1);
+            }
+            if (transitionCount + draft.size > labels.length) {
+                int capacity = Math.max(transitionCount + draft.size, labels.length * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+            }
+            int state = stateCount;
+            stateCount += 1;
+            int count = draft.accepting ? 1 : 0;
+            for (int i = 0; i < draft.size; i += 1) {
+                labels[transitionCount + i] = draft.labels[i];
+                targets[transitionCount + i] = draft.targets[i];
+                count += counts[draft.targets[i]];
+            }
+            starts[state] = transitionCount;
+            transitionCount += draft.size;
+            starts[state + 1] = transitionCount;
+            counts[state] = count;
+            accepting.set(state, draft.accepting);
+            register.put(signature, state);
+            return state;
+        }
+    }
+
+    /**
+     * A state on the path of the most recent term. Its last transition leads to the next draft on the path, marked
+     * {@link #NONE}, until that draft is minimized.
+     */
+    private class Draft {
+        private boolean accepting;
+        private char[] labels;
+        private int[] targets;
+        private int size;
+
+        Draft() {
+            accepting = false;
+            labels = new char[2];
+            targets = new int[2];
+            size = 0;
+        }
+
+        /**
+         * Constructs a draft copy of the given minimized state.
+         */
+        Draft(int state) {
+            accepting = DAWGAutocomplete.this.accepting.get(state);
+            labels = Arrays.copyOfRange(DAWGAutocomplete.this.labels, starts[state], starts[state + 1] + 1);
+            targets = Arrays.copyOfRange(DAWGAutocomplete.this.targets, starts[state], starts[state + 1] + 1);
+            size = starts[state + 1] - starts[state];
+        }
+
+        void add(char c) {
+            if (size == labels.length) {
+                labels = Arrays.copyOf(labels, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+            }
+            labels[size] = c;
+            targets[size] = NONE;
+            size += 1;
+        }
+    }
+
+    /**
+     * The identity of a minimized state: whether it is accepting and its transitions. Two states with the same
+     * signature accept the same set of suffixes.
+     */
+    private static class Signature {
+        private final boolean accepting;
+        private final char[] labels;
+        private final int[] targets;
+        private final int hash;
+
+        Signature(boolean accepting, char[] labels, int[] targets) {
+            this.accepting = accepting;
+            this.labels = labels;
+            this.targets = targets;
+            this.hash = 31 * (31 * Boolean.hashCode(accepting) + Arrays.hashCode(labels)) + Arrays.hashCode(targets);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Signature)) {
+                return false;
+            }
+            Signature other = (Signature) o;
+            return accepting == other.accepting && Arrays.equals(labels, other.labels)
+                    && Arrays.equals(targets, other.targets);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Lazily iterates over the terms accepted from a state in sorted order with an explicit stack of states, each
+     * paired with its next transition to follow, or {@link #NONE} if the state itself has not yet been visited.
+     */
+    private class MatchIterator implements Iterator<CharSequence> {
+        private final StringBuilder term;
+        private int[] states;
+        private int[] positions;
+        private int top;
+        private String next;
+
+        MatchIterator(int state, CharSequence prefix) {
+            term = new StringBuilder(prefix);
+            states = new int[INITIAL_CAPACITY];
+            positions = new int[INITIAL_CAPACITY];
+            states[0] = state;
+            positions[0] = NONE;
+            top = 1;
+            next = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && top > 0) {
+                int state = states[top - 1];
+                int position = positions[top - 1];
+                if (position == NONE) {
+                    positions[top - 1] = starts[state];
+                    if (accepting.get(state)) {
+                        next = term.toString();
+                    }
+                } else if (position == starts[state + 1]) {
+                    top -= 1;
+                    if (top > 0) {
+                        term.setLength(term.length() - 1);
+                    }
+                } else {
+                    positions[top - 1] = position + 1;
+                    term.append(labels[position]);
+                    if (top == states.length) {
+                        states = Arrays.copyOf(states, top * 2);
+                        positions = Arrays.copyOf(positions, top * 2);
+                    }
+                    states[top] = targets[position];
+                    positions[top] = NONE;
+                    top += 1;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public CharSequence next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String result = next;
+            next = null;
+            return result;
+        }
+    }
+}
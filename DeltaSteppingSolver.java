@@ -0,0 +1,376 @@
+package graphs.shortestpaths;
+
+import graphs.CSRGraph;
+import graphs.Graph;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Delta-stepping implementation of the {@link ShortestPathSolver} interface, which computes the shortest-path tree
+ * from the start on many cores at once. The graph is first copied into a {@link CSRGraph}, unless it already is one.
+ * <p>
+ * Instead of settling one vertex at a time as Dijkstra's algorithm does, delta-stepping groups vertices into buckets
+ * of tentative distances delta wide and settles a whole bucket at a time. Edges no heavier than delta are light: they
+ * can lead back into the current bucket, so the vertices of the bucket relax their light edges in parallel, again and
+ * again, until the bucket stays empty. Heavy edges always lead to later buckets, so each settled vertex relaxes them
+ * only once, in parallel, after its bucket is done. Distances are stored as the bits of doubles in an
+ * {@link AtomicLongArray} and lowered with compare-and-set, so threads relaxing edges into the same vertex never lose
+ * an update. Once every distance is final, each vertex picks as its parent any neighbor on a tight edge, one whose
+ * weight is exactly the difference of their distances.
+ * <p>
+ * A small delta approaches Dijkstra's algorithm, with little wasted work but many small buckets and little
+ * parallelism. A large delta approaches the Bellman-Ford algorithm, with plenty of parallelism but vertices relaxed
+ * many times before their distance is final. The default delta is the maximum edge weight divided by the average
+ * degree. Edge weights must be non-negative.
+ *
+ * @param <V> the type of vertices.
+ * @see ShortestPathSolver
+ * @see IntDijkstraSolver
+ * @see CSRGraph
+ */
+public class DeltaSteppingSolver<V> implements ShortestPathSolver<V> {
+    /**
+     * Maximum number of vertices whose edges are relaxed in the current thread rather than split across the pool,
+     * since the last buckets of a search are often too small to be worth the cost of submitting tasks.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 256;
+    private final CSRGraph<V> graph;
+    private final double delta;
+    private final ForkJoinPool pool;
+    /**
+     * The bits of the tentative distance to each vertex, by id. For non-negative doubles, the order of the bits as
+     * longs is the order of the doubles, so distances are compared without converting them back.
+     */
+    private final AtomicLongArray distances;
+    /**
+     * For each bucket index, the vertices added to the bucket, or null if none remain. A vertex may appear in several
+     * buckets after its distance drops, but it belongs only to the bucket recorded in {@link #queued}.
+     */
+    private final List<IntList> buckets;
+    /**
+     * The bucket index in which each vertex is waiting, or {@link SearchWorkspace#NONE} if it is in no bucket.
+     */
+    private final int[] queued;
+    /**
+     * The vertices whose distance each run lowered during the current phase.
+     */
+    private final IntList[] improved;
+    private final double[] distTo;
+    private final int[] parent;
+
+    /**
+     * Constructs a new instance by executing delta-stepping on the graph from the start in the common pool, with the
+     * default delta.
+     *
+     * @param graph the input graph.
+     * @param start the start vertex.
+     */
+    public DeltaSteppingSolver(Graph<V> graph, V start) {
+        this(graph, start, Double.NaN);
+    }
+
+    /**
+     * Constructs a new instance by executing delta-stepping on the graph from the start in the common pool.
+     *
+     * @param graph the input graph.
+     * @param start the start vertex.
+     * @param delta the width of each bucket, or NaN for the default.
+     */
+    public DeltaSteppingSolver(Graph<V> graph, V start, double delta) {
+        this(graph instanceof CSRGraph ? (CSRGraph<V>) graph : CSRGraph.from(graph, List.of(start)), start, delta,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new instance by executing delta-stepping on the graph from the start in the given pool.
+     *
+     * @param graph the input graph.
+     * @param start the start vertex.
+     * @param delta the width of each bucket, or NaN for the default.
+     * @param pool  the pool in which to relax edges in parallel.
+     * @throws IllegalArgumentException if delta is not positive.
+     */
+    public DeltaSteppingSolver(CSRGraph<V> graph, V start, double delta, ForkJoinPool pool) {
+        if (Double.isNaN(delta)) {
+            delta = defaultDelta(graph);
+        }
+        if (!(delta > 0.0)) {
+            throw new IllegalArgumentException("delta must be positive: " + delta);
+        }
+        this.graph = graph;
+        this.delta = delta;
+        this.pool = pool;
+        int n = graph.vertexCount();
+        distances = new AtomicLongArray(n);
+        long infinity = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        for (int v = 0; v < n; v += 1) {
+            distances.set(v, infinity);
+        }
+        buckets = new ArrayList<>();
+        queued = new int[n];
+        Arrays.fill(queued, SearchWorkspace.NONE);
+        improved = new IntList[4 * pool.getParallelism()];
+        for (int run = 0; run < improved.length; run += 1) {
+            improved[run] = new IntList();
+        }
+        int source = graph.id(start);
+        if (source >= 0) {
+            distances.set(source, Double.doubleToRawLongBits(0.0));
+            enqueue(source);
+            search();
+        }
+        distTo = new double[n];
+        for (int v = 0; v < n; v += 1) {
+            distTo[v] = distance(v);
+        }
+        parent = new int[n];
+        Arrays.fill(parent, SearchWorkspace.NONE);
+        linkParents(source);
+    }
+
+    /**
+     * Returns the maximum edge weight divided by the average out-degree of the given graph, or 1 if it has no edges of
+     * positive weight.
+     */
+    private static double defaultDelta(CSRGraph<?> graph) {
+        double maxWeight = 0.0;
+        for (int e = 0; e < graph.edgeCount(); e += 1) {
+            maxWeight = Math.max(maxWeight, graph.weight(e));
+        }
+        if (maxWeight == 0.0) {
+            return 1.0;
+        }
+        return maxWeight * graph.vertexCount() / graph.edgeCount();
+    }
+
+    /**
+     * Settles the buckets in increasing order until none remain.
+     */
+    private void search() {
+        IntList frontier = new IntList();
+        IntList settled = new IntList();
+        int[] settledIn = new int[queued.length];
+        Arrays.fill(settledIn, SearchWorkspace.NONE);
+        for (int i = 0; i < buckets.size(); i += 1) {
+            settled.clear();
+            // Relaxing light edges can add vertices back into the current bucket, so repeat until it stays empty.
+            while (buckets.get(i) != null) {
+                IntList bucket = buckets.get(i);
+                buckets.set(i, null);
+                frontier.clear();
+                for (int k = 0; k < bucket.size; k += 1) {
+                    int v = bucket.items[k];
+                    if (queued[v] == i) {
+                        queued[v] = SearchWorkspace.NONE;
+                        frontier.add(v);
+                        if (settledIn[v] != i) {
+                            settledIn[v] = i;
+                            settled.add(v);
+                        }
+                    }
+                }
+                relax(frontier, true);
+            }
+            relax(settled, false);
+        }
+    }
+
+    /**
+     * Relaxes the light or heavy edges of the given vertices, in parallel if there are enough of them, and adds every
+     * vertex whose distance dropped to the bucket of its new distance.
+     */
+    private void relax(IntList vertices, boolean light) {
+        int count = vertices.size;
+        int runs = count < SEQUENTIAL_THRESHOLD ? Math.min(count, 1) : Math.min(count, improved.length);
+        if (runs == 1) {
+            improved[0].clear();
+            relax(vertices.items, 0, count, light, improved[0]);
+        } else {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(runs);
+            for (int run = 0; run < runs; run += 1) {
+                int begin = run * count / runs;
+                int end = (run + 1) * count / runs;
+                IntList result = improved[run];
+                result.clear();
+                tasks.add(pool.submit(() -> relax(vertices.items, begin, end, light, result)));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+        for (int run = 0; run < runs; run += 1) {
+            for (int k = 0; k < improved[run].size; k += 1) {
+                enqueue(improved[run].items[k]);
+            }
+        }
+    }
+
+    /**
+     * Relaxes the light or heavy edges of the vertices in the given range, adding each vertex whose distance dropped
+     * to the given list.
+     */
+    private void relax(int[] vertices, int begin, int end, boolean light, IntList result) {
+        for (int k = begin; k < end; k += 1) {
+            int from = vertices[k];
+            double fromDist = distance(from);
+            for (int e = graph.edgeStart(from); e < graph.edgeEnd(from); e += 1) {
+                double weight = graph.weight(e);
+                if ((weight <= delta) == light && lower(graph.target(e), fromDist + weight)) {
+                    result.add(graph.target(e));
+                }
+            }
+        }
+    }
+
+    /**
+     * Atomically lowers the distance to the given vertex to the given distance if it is shorter.
+     *
+     * @return true if and only if the distance was lowered.
+     */
+    private boolean lower(int v, double dist) {
+        long bits = Double.doubleToRawLongBits(dist);
+        long current = distances.get(v);
+        while (bits < current) {
+            if (distances.compareAndSet(v, current, bits)) {
+                return true;
+            }
+            current = distances.get(v);
+        }
+        return false;
+    }
+
+    private double distance(int v) {
+        return Double.longBitsToDouble(distances.get(v));
+    }
+
+    /**
+     * Adds the given vertex to the bucket of its current distance unless it is already waiting there.
+     */
+    private void enqueue(int v) {
+        int i = (int) (distance(v) / delta);
+        if (queued[v] == i) {
+            return;
+        }
+        queued[v] = i;
+        while (buckets.size() <= i) {
+            buckets.add(null);
+        }
+        if (buckets.get(i) == null) {
+            buckets.set(i, new IntList());
+        }
+        buckets.get(i).add(v);
+    }
+
+    /**
+     * Chooses a parent for every reached vertex other than the source. Tight edges between strictly increasing
+     * distances are chosen in parallel, since distances strictly decrease along the chosen parents and no choice can
+     * form a cycle. A tight edge with a positive weight can still join two equal distances when the weight is lost to
+     * rounding, so it is left out like a zero-weight edge. Vertices reached only through such edges are then linked by
+     * a search outward from the linked vertices.
+     */
+    private void linkParents(int source) {
+        int n = distTo.length;
+        int runs = Math.min(n, improved.length);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(runs);
+        for (int run = 0; run < runs; run += 1) {
+            int begin = run * n / runs;
+            int end = (run + 1) * n / runs;
+            tasks.add(pool.submit(() -> {
+                for (int from = begin; from < end; from += 1) {
+                    for (int e = graph.edgeStart(from); e < graph.edgeEnd(from); e += 1) {
+                        int to = graph.target(e);
+                        if (distTo[from] < distTo[to] && distTo[from] + graph.weight(e) == distTo[to]) {
+                            parent[to] = from;
+                        }
+                    }
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        IntList linked = new IntList();
+        boolean missing = false;
+        for (int v = 0; v < n; v += 1) {
+            if (v == source || parent[v] != SearchWorkspace.NONE) {
+                linked.add(v);
+            } else if (distTo[v] < Double.POSITIVE_INFINITY) {
+                missing = true;
+            }
+        }
+        for (int k = 0; missing && k < linked.size; k += 1) {
+            int from = linked.items[k];
+            for (int e = graph.edgeStart(from); e < graph.edgeEnd(from); e += 1) {
+                int to = graph.target(e);
+                if (to != source && parent[to] == SearchWorkspace.NONE
+                        && distTo[from] + graph.weight(e) == distTo[to]) {
+                    parent[to] = from;
+                    linked.add(to);
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<V> solution(V goal) {
+        List<V> path = new ArrayList<>();
+        path.add(goal);
+        int id = graph.id(goal);
+        if (id < 0) {
+            return path;
+        }
+        for (int curr = parent[id]; curr != SearchWorkspace.NONE; curr = parent[curr]) {
+            path.add(graph.vertex(curr));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Returns the length of the shortest path from the start to the given vertex.
+     *
+     * @param goal the goal vertex.
+     * @return the shortest-path distance, or {@link Double#POSITIVE_INFINITY} if the goal is unreachable.
+     */
+    public double distTo(V goal) {
+        int id = graph.id(goal);
+        return id < 0 ? Double.POSITIVE_INFINITY : distTo[id];
+    }
+
+    /**
+     * Returns the width of each bucket.
+     *
+     * @return the delta used by this search.
+     */
+    public double delta() {
+        return delta;
+    }
+
+    /**
+     * Growable list of vertex ids.
+     */
+    private static class IntList {
+        private int[] items;
+        private int size;
+
+        IntList() {
+            items = new int[16];
+            size = 0;
+        }
+
+        void add(int v) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size] = v;
+            size += 1;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
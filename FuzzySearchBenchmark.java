@@ -0,0 +1,71 @@
+import autocomplete.TernarySearchTreeAutocomplete;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Measure the cost of typo-tolerant city search at each edit distance. Reads the cities dataset at the path given as
+ * the first argument, or at {@code data/cities.tsv} by default.
+ */
+public class FuzzySearchBenchmark {
+    /**
+     * Maximum number of cities to parse.
+     */
+    private static final int MAX_CITIES = 1000000;
+    /**
+     * Path to the cities dataset.
+     */
+    private static final String PATH = "data/cities.tsv";
+    /**
+     * Number of misspelled queries to time at each edit distance.
+     */
+    private static final int QUERIES = 1000;
+    /**
+     * Length of each query, taken from the start of a random city name.
+     */
+    private static final int PREFIX_LENGTH = 5;
+    /**
+     * Maximum number of nodes visited by a single query.
+     */
+    private static final int MAX_VISITS = 100000;
+
+    public static void main(String[] args) throws IOException {
+        List<String> cities = new ArrayList<>();
+        Scanner input = new Scanner(new FileInputStream(args.length > 0 ? args[0] : PATH));
+        for (int i = 0; i < MAX_CITIES && input.hasNextLine(); i += 1) {
+            Scanner line = new Scanner(input.nextLine()).useDelimiter("\t");
+            cities.add(line.next());
+        }
+        TernarySearchTreeAutocomplete autocomplete = new TernarySearchTreeAutocomplete();
+        autocomplete.addAll(cities);
+
+        // Misspell each query by substituting one character so that only fuzzy search can find the original.
+        Random random = new Random(373);
+        List<String> queries = new ArrayList<>();
+        while (queries.size() < QUERIES) {
+            String city = cities.get(random.nextInt(cities.size()));
+            if (city.length() >= PREFIX_LENGTH) {
+                char[] query = city.substring(0, PREFIX_LENGTH).toCharArray();
+                int index = random.nextInt(PREFIX_LENGTH);
+                query[index] = query[index] == 'e' ? 'a' : 'e';
+                queries.add(new String(query));
+            }
+        }
+
+        for (int distance = 0; distance <= 2; distance += 1) {
+            // Warm up the JIT compiler before timing.
+            for (String query : queries) {
+                autocomplete.fuzzyMatches(query, distance, MAX_VISITS);
+            }
+            long matches = 0;
+            long start = System.nanoTime();
+            for (String query : queries) {
+                matches += autocomplete.fuzzyMatches(query, distance, MAX_VISITS).size();
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("distance %d: %.1f us/query, %.1f matches/query%n",
+                    distance, elapsed / 1000.0 / QUERIES, (double) matches / QUERIES);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package graphs.shortestpaths;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Indexed d-ary min-heap of the int ids 0 to n - 1 keyed by double priorities, with decrease-key. Each id knows its
+ * position in the heap, so changing its priority costs O(log n) without searching, and no operation allocates.
+ * <p>
+ * A wider node makes the heap shallower, so decrease-key, by far the most common operation in Dijkstra's algorithm,
+ * moves an id up fewer levels, and the children compared during remove-min are adjacent in memory.
+ */
+class IndexedDaryHeap {
+    /**
+     * The number of children of each node.
+     */
+    private static final int ARITY = 4;
+    /**
+     * Position in {@link #heap} of an id that is not in the heap.
+     */
+    private static final int ABSENT = -1;
+    /**
+     * The ids in heap order.
+     */
+    private final int[] heap;
+    /**
+     * The position in {@link #heap} of each id, or {@link #ABSENT}.
+     */
+    private final int[] positions;
+    /**
+     * The priority of each id in the heap.
+     */
+    private final double[] priorities;
+    private int size;
+
+    /**
+     * Constructs an empty heap for the ids 0 to capacity - 1.
+     *
+     * @param capacity the number of ids.
+     */
+    IndexedDaryHeap(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, ABSENT);
+        priorities = new double[capacity];
+        size = 0;
+    }
+
+    /**
+     * Returns true if and only if the heap is empty.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns true if and only if the given id is in the heap.
+     */
+    boolean contains(int id) {
+        return positions[id] != ABSENT;
+    }
+
+    /**
+     * Adds the given id with the given priority, or lowers its priority if it is already in the heap with a higher
+     * priority.
+     */
+    void addOrDecreasePriority(int id, double priority) {
+        if (positions[id] == ABSENT) {
+            positions[id] = size;
+            heap[size] = id;
+            size += 1;
+        } else if (priority >= priorities[id]) {
+            return;
+        }
+        priorities[id] = priority;
+        siftUp(positions[id]);
+    }
+
+    /**
+     * Removes and returns the id with the minimum priority.
+     *
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    int removeMin() {
+        if (size == 0) {
+            throw new NoSuchElementException("heap is empty");
+        }
+        int min = heap[0];
+        positions[min] = ABSENT;
+        size -= 1;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Returns the minimum priority without removing its id.
+     *
+     * @throws NoSuchElementException if the heap is empty.
+     */
+    double minPriority() {
+        if (size == 0) {
+            throw new NoSuchElementException("heap is empty");
+        }
+        return priorities[heap[0]];
+    }
+
+    /**
+     * Removes every id from the heap in time proportional to the number of ids in it.
+     */
+    void clear() {
+        for (int i = 0; i < size; i += 1) {
+            positions[heap[i]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    /**
+     * Moves the id at the given position up until its parent has no greater priority.
+     */
+    private void siftUp(int position) {
+        int id = heap[position];
+        double priority = priorities[id];
+        while (position > 0) {
+            int parent = (position - 1) / ARITY;
+            if (priorities[heap[parent]] <= priority) {
+                break;
+            }
+            heap[position] = heap[parent];
+            positions[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = id;
+        positions[id] = position;
+    }
+
+    /**
+     * Moves the id at the given position down until none of its children has a smaller priority.
+     */
+    private void siftDown(int position) {
+        int id = heap[position];
+        double priority = priorities[id];
+        while (true) {
+            int first = position * ARITY + 1;
+            if (first >= size) {
+                break;
+            }
+            int best = first;
+            for (int child = first + 1; child < Math.min(first + ARITY, size); child += 1) {
+                if (priorities[heap[child]] < priorities[heap[best]]) {
+                    best = child;
+                }
+            }
+            if (priorities[heap[best]] >= priority) {
+                break;
+            }
+            heap[position] = heap[best];
+            positions[heap[position]] = position;
+            position = best;
+        }
+        heap[position] = id;
+        positions[id] = position;
+    }
+}
@@ -0,0 +1,383 @@
+package autocomplete;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Word-level infix implementation of the {@link Autocomplete} interface. A term matches a prefix if any word of the
+ * term starts with the prefix, so "Market" and "Place Mar" both match "Pike Place Market". A word starts at the
+ * beginning of the term and at every letter or digit that follows a character that is not a letter or digit.
+ * <p>
+ * Every word start of every term is registered as a zero-copy view of the rest of the term, like the suffixes in
+ * {@code DNASearch}, and the views are kept in sorted order. A query finds the range of matching views with two binary
+ * searches, the same as {@link BinarySearchAutocomplete}, and maps each view back to its term. A term with several
+ * matching words is reported once.
+ * <p>
+ * Removing a term marks its record as removed, and its word starts are skipped by queries until the list is
+ * compacted once removed word starts make up a quarter of it.
+ *
+ * @see Autocomplete
+ */
+public class InfixAutocomplete implements Autocomplete {
+    /**
+     * Batch size above which batches are sorted in parallel.
+     */
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+    /**
+     * Fraction of the word starts that removed terms may occupy before the list is compacted.
+     */
+    private static final int COMPACTION_DIVISOR = 4;
+    /**
+     * Estimated size in bytes of a {@link TreeMap} entry and its {@link Term} record.
+     */
+    private static final int TERM_BYTES = 72;
+    /**
+     * Estimated size in bytes of a {@link WordStart} view and its reference in the sorted list.
+     */
+    private static final int WORD_BYTES = 28;
+
+    /**
+     * Sorted {@link List} of the word starts of every added term. Adding terms replaces this list with a new merged
+     * list rather than modifying it.
+     */
+    private List<WordStart> words;
+    /**
+     * {@link Map} of added autocompletion terms to their records.
+     */
+    private final Map<CharSequence, Term> terms;
+    /**
+     * The number of word starts in the list that belong to removed terms.
+     */
+    private int removedCount;
+
+    /**
+     * Constructs an empty instance.
+     */
+    public InfixAutocomplete() {
+        words = new ArrayList<>();
+        terms = new TreeMap<>(CharSequence::compare);
+        removedCount = 0;
+    }
+
+    /**
+     * Returns true if and only if some word of the given term starts with the given prefix.
+     *
+     * @param prefix prefix to match against the words of the term.
+     * @param term   term to search for a matching word.
+     * @return true if and only if the prefix matches the start of a word of the term.
+     */
+    public static boolean isWordPrefixOf(CharSequence prefix, CharSequence term) {
+        for (int i = 0; i + prefix.length() <= term.length(); i += 1) {
+            if (isWordStart(term, i) && regionMatches(prefix, term, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if and only if a word of the text starts at the given index.
+     */
+    private static boolean isWordStart(CharSequence text, int index) {
+        return index == 0 || (Character.isLetterOrDigit(text.charAt(index))
+                && !Character.isLetterOrDigit(text.charAt(index - 1)));
+    }
+
+    /**
+     * Returns true if and only if the text contains the prefix at the given offset.
+     */
+    private static boolean regionMatches(CharSequence prefix, CharSequence text, int offset) {
+        for (int i = 0; i < prefix.length(); i += 1) {
+            if (text.charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        List<WordStart> batch = new ArrayList<>();
+        for (CharSequence term : terms) {
+            if (!this.terms.containsKey(term)) {
+                register(term, 0.0, batch);
+            }
+        }
+        merge(batch);
+    }
+
+    @Override
+    public void addAll(Map<? extends CharSequence, Double> terms) {
+        List<WordStart> batch = new ArrayList<>();
+        for (Map.Entry<? extends CharSequence, Double> entry : terms.entrySet()) {
+            Term existing = this.terms.get(entry.getKey());
+            if (existing != null) {
+                existing.weight = entry.getValue();
+            } else {
+                register(entry.getKey(), entry.getValue(), batch);
+            }
+        }
+        merge(batch);
+    }
+
+    /**
+     * Records the new term and adds a view of each of its word starts to the batch.
+     */
+    private void register(CharSequence text, double weight, List<WordStart> batch) {
+        Term term = new Term(text, weight);
+        terms.put(text, term);
+        for (int i = 0; i < text.length(); i += 1) {
+            if (isWordStart(text, i)) {
+                batch.add(new WordStart(term, i));
+                term.words += 1;
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(CharSequence text) {
+        Term term = terms.remove(text);
+        if (term == null) {
+            return false;
+        }
+        term.removed = true;
+        removedCount += term.words;
+        if (removedCount > words.size() / COMPACTION_DIVISOR) {
+            List<WordStart> compacted = new ArrayList<>(words.size() - removedCount);
+            for (WordStart word : words) {
+                if (!word.term.removed) {
+                    compacted.add(word);
+                }
+            }
+            words = compacted;
+            removedCount = 0;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean updateWeight(CharSequence text, double weight) {
+        Term term = terms.get(text);
+        if (term == null) {
+            return false;
+        }
+        term.weight = weight;
+        return true;
+    }
+
+    /**
+     * Sorts the batch on its own and merges it with the already-sorted word starts in a single linear pass.
+     *
+     * @param batch the unsorted word starts to add.
+     */
+    private void merge(List<WordStart> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batch.size() > PARALLEL_SORT_THRESHOLD) {
+            WordStart[] array = batch.toArray(new WordStart[0]);
+            Arrays.parallelSort(array, CharSequence::compare);
+            batch = Arrays.asList(array);
+        } else {
+            batch.sort(CharSequence::compare);
+        }
+        List<WordStart> merged = new ArrayList<>(words.size() + batch.size());
+        int i = 0;
+        int j = 0;
+        while (i < words.size() && j < batch.size()) {
+            if (CharSequence.compare(words.get(i), batch.get(j)) <= 0) {
+                merged.add(words.get(i));
+                i += 1;
+            } else {
+                merged.add(batch.get(j));
+                j += 1;
+            }
+        }
+        merged.addAll(words.subList(i, words.size()));
+        merged.addAll(batch.subList(j, batch.size()));
+        words = merged;
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return allMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix, VisitSink visits) {
+        List<CharSequence> result = new ArrayList<>();
+        matches(prefix, visits).forEach(result::add);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Terms are reported in sorted order of their first matching word.
+     */
+    @Override
+    public Stream<CharSequence> matches(CharSequence prefix) {
+        return matches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix, VisitSink visits) {
+        return (int) matches(prefix, visits).count();
+    }
+
+    /**
+     * Returns a lazily-evaluated stream of the terms with a word that matches the given prefix, reporting the probes
+     * of the binary searches that find them to the given sink.
+     */
+    private Stream<CharSequence> matches(CharSequence prefix, VisitSink visits) {
+        if (prefix == null || prefix.length() == 0) {
+            return Stream.empty();
+        }
+        int start = start(prefix, visits);
+        return words.subList(start, end(prefix, start, visits)).stream()
+                .map(word -> word.term)
+                .filter(term -> !term.removed)
+                .distinct()
+                .map(term -> term.text);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Scans the range of matching word starts once with a bounded heap, skipping terms already seen in the range.
+     */
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        return topMatches(prefix, k, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k, VisitSink visits) {
+        List<CharSequence> result = new ArrayList<>();
+        if (prefix == null || prefix.length() == 0 || k <= 0) {
+            return result;
+        }
+        int start = start(prefix, visits);
+        int end = end(prefix, start, visits);
+        visits.visited(end - start);
+        Set<Term> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        PriorityQueue<Term> best = new PriorityQueue<>(Comparator.comparingDouble(term -> term.weight));
+        for (int i = start; i < end; i += 1) {
+            Term term = words.get(i).term;
+            if (term.removed || !seen.add(term)) {
+                continue;
+            }
+            if (best.size() < k) {
+                best.add(term);
+            } else if (term.weight > best.peek().weight) {
+                best.remove();
+                best.add(term);
+            }
+        }
+        while (!best.isEmpty()) {
+            result.add(best.remove().text);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    @Override
+    public long memoryFootprint() {
+        return (long) terms.size() * TERM_BYTES + (long) words.size() * WORD_BYTES;
+    }
+
+    /**
+     * Returns the index of the first word start that is greater than or equal to the prefix, and reports the number
+     * of probes to the given sink.
+     */
+    private int start(CharSequence prefix, VisitSink visits) {
+        int low = 0;
+        int high = words.size();
+        int probes = 0;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            probes += 1;
+            if (CharSequence.compare(words.get(middle), prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        visits.visited(probes);
+        return low;
+    }
+
+    /**
+     * Returns the index of the first word start at or after the start that does not match the prefix, and reports the
+     * number of probes to the given sink.
+     */
+    private int end(CharSequence prefix, int start, VisitSink visits) {
+        int low = start;
+        int high = words.size();
+        int probes = 0;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            probes += 1;
+            if (Autocomplete.isPrefixOf(prefix, words.get(middle))) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        visits.visited(probes);
+        return low;
+    }
+
+    /**
+     * An added term and its weight, shared by the views of its word starts.
+     */
+    private static class Term {
+        private final CharSequence text;
+        private double weight;
+        /**
+         * The number of word starts of this term.
+         */
+        private int words;
+        private boolean removed;
+
+        Term(CharSequence text, double weight) {
+            this.text = text;
+            this.weight = weight;
+            this.words = 0;
+            this.removed = false;
+        }
+    }
+
+    /**
+     * A view of a term from the start of one of its words to the end of the term.
+     */
+    private static class WordStart implements CharSequence {
+        private final Term term;
+        private final int offset;
+
+        WordStart(Term term, int offset) {
+            this.term = term;
+            this.offset = offset;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return term.text.charAt(offset + index);
+        }
+
+        @Override
+        public int length() {
+            return term.text.length() - offset;
+        }
+
+        @Override
+        public CharSequence subSequence(int begin, int end) {
+            return term.text.subSequence(offset + begin, offset + end);
+        }
+
+        @Override
+        public String toString() {
+            return term.text.subSequence(offset, term.text.length()).toString();
+        }
+    }
+}
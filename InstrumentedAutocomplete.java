@@ -0,0 +1,309 @@
+package autocomplete;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * {@link Autocomplete} decorator that records, for each kind of query, a histogram of its latency, of the number of
+ * results it returned, and of the number of index nodes or entries it visited. Each query passes a {@link VisitSink}
+ * to the visit-counting variant of the delegate's query, and indexes in this package report to it as they search: the
+ * tree nodes they descend through, the sorted entries they probe by binary search or scan for the best matches, and
+ * the cached matches they filter. Queries made without this decorator pass {@link VisitSink#NONE} and do no counting.
+ * Recording only increments striped {@link LongAdder} counters and takes no locks, so it can be left on under load.
+ * <p>
+ * The lazily-evaluated {@link #matches(CharSequence)} is only timed until the stream is returned, and neither its
+ * results nor its visits are recorded. Indexes that search inside a library collection, such as
+ * {@link TreeSetAutocomplete}, report no visits.
+ *
+ * @see Autocomplete
+ */
+public class InstrumentedAutocomplete implements Autocomplete {
+    private final Autocomplete delegate;
+    private final Metrics allMatches;
+    private final Metrics matches;
+    private final Metrics countMatches;
+    private final Metrics topMatches;
+
+    /**
+     * Constructs an instrumented view of the given delegate.
+     *
+     * @param delegate the underlying {@link Autocomplete}.
+     */
+    public InstrumentedAutocomplete(Autocomplete delegate) {
+        this.delegate = delegate;
+        this.allMatches = new Metrics();
+        this.matches = new Metrics();
+        this.countMatches = new Metrics();
+        this.topMatches = new Metrics();
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        delegate.addAll(terms);
+    }
+
+    @Override
+    public void addAll(Map<? extends CharSequence, Double> terms) {
+        delegate.addAll(terms);
+    }
+
+    @Override
+    public boolean remove(CharSequence term) {
+        return delegate.remove(term);
+    }
+
+    @Override
+    public boolean updateWeight(CharSequence term, double weight) {
+        return delegate.updateWeight(term, weight);
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return allMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix, VisitSink visits) {
+        Visits counter = new Visits(visits);
+        long start = System.nanoTime();
+        List<CharSequence> result = delegate.allMatches(prefix, counter);
+        allMatches.record(System.nanoTime() - start, result.size(), counter.count);
+        return result;
+    }
+
+    @Override
+    public List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes) {
+        return delegate.allMatchesBatch(prefixes);
+    }
+
+    @Override
+    public List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes, ForkJoinPool pool) {
+        return delegate.allMatchesBatch(prefixes, pool);
+    }
+
+    @Override
+    public Stream<CharSequence> matches(CharSequence prefix) {
+        long start = System.nanoTime();
+        Stream<CharSequence> result = delegate.matches(prefix);
+        matches.latency.record(System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        return countMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix, VisitSink visits) {
+        Visits counter = new Visits(visits);
+        long start = System.nanoTime();
+        int result = delegate.countMatches(prefix, counter);
+        countMatches.record(System.nanoTime() - start, result, counter.count);
+        return result;
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        return topMatches(prefix, k, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k, VisitSink visits) {
+        Visits counter = new Visits(visits);
+        long start = System.nanoTime();
+        List<CharSequence> result = delegate.topMatches(prefix, k, counter);
+        topMatches.record(System.nanoTime() - start, result.size(), counter.count);
+        return result;
+    }
+
+    @Override
+    public long memoryFootprint() {
+        return delegate.memoryFootprint();
+    }
+
+    /**
+     * Returns the metrics recorded for {@link #allMatches(CharSequence)}.
+     *
+     * @return the metrics for all-matches queries.
+     */
+    public Metrics allMatchesMetrics() {
+        return allMatches;
+    }
+
+    /**
+     * Returns the metrics recorded for {@link #matches(CharSequence)}, which only include latency.
+     *
+     * @return the metrics for lazy match queries.
+     */
+    public Metrics matchesMetrics() {
+        return matches;
+    }
+
+    /**
+     * Returns the metrics recorded for {@link #countMatches(CharSequence)}.
+     *
+     * @return the metrics for count queries.
+     */
+    public Metrics countMatchesMetrics() {
+        return countMatches;
+    }
+
+    /**
+     * Returns the metrics recorded for {@link #topMatches(CharSequence, int)}.
+     *
+     * @return the metrics for top-k queries.
+     */
+    public Metrics topMatchesMetrics() {
+        return topMatches;
+    }
+
+    /**
+     * The histograms recorded for one kind of query.
+     */
+    public static class Metrics {
+        private final Histogram latency;
+        private final Histogram results;
+        private final Histogram visits;
+
+        Metrics() {
+            latency = new Histogram();
+            results = new Histogram();
+            visits = new Histogram();
+        }
+
+        private void record(long nanos, int resultCount, long visitCount) {
+            latency.record(nanos);
+            results.record(resultCount);
+            visits.record(visitCount);
+        }
+
+        /**
+         * Returns the histogram of query latencies in nanoseconds.
+         *
+         * @return the latency histogram.
+         */
+        public Histogram latency() {
+            return latency;
+        }
+
+        /**
+         * Returns the histogram of the number of results returned or counted per query.
+         *
+         * @return the result-count histogram.
+         */
+        public Histogram results() {
+            return results;
+        }
+
+        /**
+         * Returns the histogram of the number of index nodes or entries visited per query.
+         *
+         * @return the visit histogram.
+         */
+        public Histogram visits() {
+            return visits;
+        }
+    }
+
+    /**
+     * A lock-free histogram of non-negative values with one bucket per power of two. Recording a value costs two
+     * striped increments, and each percentile is accurate to within a factor of two.
+     */
+    public static class Histogram {
+        /**
+         * Bucket 0 counts zeros and bucket i counts values from 2<sup>i - 1</sup> to 2<sup>i</sup> - 1.
+         */
+        private final LongAdder[] buckets;
+        private final LongAdder sum;
+
+        Histogram() {
+            buckets = new LongAdder[Long.SIZE];
+            for (int i = 0; i < buckets.length; i += 1) {
+                buckets[i] = new LongAdder();
+            }
+            sum = new LongAdder();
+        }
+
+        /**
+         * Records the given value, treating negative values as 0.
+         *
+         * @param value the value to record.
+         */
+        public void record(long value) {
+            value = Math.max(value, 0);
+            buckets[Long.SIZE - Long.numberOfLeadingZeros(value)].increment();
+            sum.add(value);
+        }
+
+        /**
+         * Returns the number of recorded values.
+         *
+         * @return the number of recorded values.
+         */
+        public long count() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        /**
+         * Returns the mean of the recorded values.
+         *
+         * @return the mean of the recorded values, or 0 if no values have been recorded.
+         */
+        public double mean() {
+            long count = count();
+            return count == 0 ? 0.0 : (double) sum.sum() / count;
+        }
+
+        /**
+         * Returns an upper bound on the given percentile of the recorded values: the largest value in the bucket
+         * containing that percentile.
+         *
+         * @param percentile percentile between 0 and 100.
+         * @return an upper bound on the percentile, or 0 if no values have been recorded.
+         */
+        public long percentile(double percentile) {
+            long[] counts = new long[buckets.length];
+            long total = 0;
+            for (int i = 0; i < buckets.length; i += 1) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            long rank = (long) Math.ceil(total * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i += 1) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) {
+                    return i == 0 ? 0 : (i == Long.SIZE - 1 ? Long.MAX_VALUE : (1L << i) - 1);
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * The number of nodes or entries visited by one instrumented query. The visits are also passed on to the sink of
+     * the caller, so a query to an instrumented index beneath an instrumented cache counts towards both.
+     */
+    private static class Visits implements VisitSink {
+        private final VisitSink outer;
+        private long count;
+
+        Visits(VisitSink outer) {
+            this.outer = outer;
+            this.count = 0;
+        }
+
+        @Override
+        public void visited(long count) {
+            this.count += count;
+            outer.visited(count);
+        }
+    }
+}
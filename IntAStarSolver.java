@@ -0,0 +1,154 @@
+package graphs.shortestpaths;
+
+import graphs.AStarGraph;
+import graphs.CSRGraph;
+
+import java.util.*;
+
+/**
+ * A* search for single-pair shortest paths over the dense int vertex ids of a {@link CSRGraph}. The search runs in a
+ * pooled {@link SearchWorkspace} and scans edges by id, so once the graph has been copied a query allocates only the
+ * returned path. The heuristic comes from an {@link AStarGraph} over the same vertices, such as the graph the copy was
+ * made from, and must be consistent: the distance to each vertex is final once it is removed from the perimeter.
+ * <p>
+ * {@link #bidirectionalShortestPath} runs the search of {@link BidirectionalAStarSolver} in two pooled workspaces, one
+ * for the forward search and one for the reverse search.
+ *
+ * @see AStarSolver
+ * @see BidirectionalAStarSolver
+ * @see IntDijkstraSolver
+ * @see CSRGraph
+ */
+public final class IntAStarSolver {
+    private IntAStarSolver() {
+    }
+
+    /**
+     * Returns the shortest path from the start to the goal, searching only until the goal is settled.
+     *
+     * @param graph     the input graph.
+     * @param heuristic the graph whose {@link AStarGraph#estimatedDistance} estimates the distance to the goal.
+     * @param start     the start vertex.
+     * @param goal      the goal vertex.
+     * @param <V>       the type of vertices.
+     * @return a list of vertices representing the shortest path, or a list containing only the goal if the goal is
+     * unreachable.
+     */
+    public static <V> List<V> shortestPath(CSRGraph<V> graph, AStarGraph<V> heuristic, V start, V goal) {
+        List<V> path = new ArrayList<>();
+        int source = graph.id(start);
+        int target = graph.id(goal);
+        if (source < 0 || target < 0) {
+            path.add(goal);
+            return path;
+        }
+        try (SearchWorkspace search = SearchWorkspace.acquire(graph.vertexCount())) {
+            search.relax(source, 0.0, SearchWorkspace.NONE, SearchWorkspace.NONE, 0.0);
+            while (!search.isEmpty()) {
+                int from = search.removeMin();
+                if (from == target) {
+                    break;
+                }
+                search.mark(from);
+                double fromDist = search.distance(from);
+                for (int e = graph.edgeStart(from); e < graph.edgeEnd(from); e += 1) {
+                    int to = graph.target(e);
+                    double newDist = fromDist + graph.weight(e);
+                    // Estimate the remaining distance only for a shorter path to an unsettled vertex.
+                    if (!search.isMarked(to) && newDist < search.distance(to)) {
+                        double priority = newDist + heuristic.estimatedDistance(graph.vertex(to), goal);
+                        search.relax(to, newDist, from, SearchWorkspace.NONE, priority);
+                    }
+                }
+            }
+            if (search.distance(target) == Double.POSITIVE_INFINITY) {
+                path.add(goal);
+                return path;
+            }
+            for (int curr = target; curr != SearchWorkspace.NONE; curr = search.parent(curr)) {
+                path.add(graph.vertex(curr));
+            }
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Returns the shortest path from the start to the goal found by bidirectional A* search with balanced potentials,
+     * as {@link BidirectionalAStarSolver} does. The forward and reverse searches take turns removing one vertex each,
+     * and stop as soon as the sum of their minimum priorities reaches the length of the best path where they meet.
+     *
+     * @param graph     the input graph.
+     * @param reverse   the reverse of the input graph with the same vertex ids, or the graph itself if every edge has a
+     *                  reverse edge of the same weight.
+     * @param heuristic the graph whose {@link AStarGraph#estimatedDistance} estimates distances between vertices.
+     * @param start     the start vertex.
+     * @param goal      the goal vertex.
+     * @param <V>       the type of vertices.
+     * @return a list of vertices representing the shortest path, or a list containing only the goal if the goal is
+     * unreachable.
+     */
+    public static <V> List<V> bidirectionalShortestPath(CSRGraph<V> graph, CSRGraph<V> reverse,
+                                                        AStarGraph<V> heuristic, V start, V goal) {
+        List<V> path = new ArrayList<>();
+        int source = graph.id(start);
+        int target = graph.id(goal);
+        if (source < 0 || target < 0) {
+            path.add(goal);
+            return path;
+        }
+        try (SearchWorkspace forward = SearchWorkspace.acquire(graph.vertexCount());
+             SearchWorkspace backward = SearchWorkspace.acquire(graph.vertexCount())) {
+            forward.relax(source, 0.0, SearchWorkspace.NONE, SearchWorkspace.NONE,
+                    potential(graph, heuristic, start, goal, source));
+            backward.relax(target, 0.0, SearchWorkspace.NONE, SearchWorkspace.NONE,
+                    -potential(graph, heuristic, start, goal, target));
+            int meeting = source == target ? source : SearchWorkspace.NONE;
+            double best = source == target ? 0.0 : Double.POSITIVE_INFINITY;
+            boolean forwardTurn = true;
+            while (!forward.isEmpty() && !backward.isEmpty()
+                    && forward.minPriority() + backward.minPriority() < best) {
+                SearchWorkspace search = forwardTurn ? forward : backward;
+                SearchWorkspace other = forwardTurn ? backward : forward;
+                CSRGraph<V> edges = forwardTurn ? graph : reverse;
+                double sign = forwardTurn ? 1.0 : -1.0;
+                int from = search.removeMin();
+                search.mark(from);
+                double fromDist = search.distance(from);
+                for (int e = edges.edgeStart(from); e < edges.edgeEnd(from); e += 1) {
+                    int to = edges.target(e);
+                    double newDist = fromDist + edges.weight(e);
+                    if (!search.isMarked(to) && newDist < search.distance(to)) {
+                        double priority = newDist + sign * potential(graph, heuristic, start, goal, to);
+                        search.relax(to, newDist, from, SearchWorkspace.NONE, priority);
+                        if (newDist + other.distance(to) < best) {
+                            best = newDist + other.distance(to);
+                            meeting = to;
+                        }
+                    }
+                }
+                forwardTurn = !forwardTurn;
+            }
+            if (meeting == SearchWorkspace.NONE) {
+                path.add(goal);
+                return path;
+            }
+            for (int curr = meeting; curr != SearchWorkspace.NONE; curr = forward.parent(curr)) {
+                path.add(graph.vertex(curr));
+            }
+            Collections.reverse(path);
+            for (int curr = backward.parent(meeting); curr != SearchWorkspace.NONE; curr = backward.parent(curr)) {
+                path.add(graph.vertex(curr));
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Returns the balanced forward potential of the given vertex. The reverse potential is its negation.
+     */
+    private static <V> double potential(CSRGraph<V> graph, AStarGraph<V> heuristic, V start, V goal, int v) {
+        V vertex = graph.vertex(v);
+        return (heuristic.estimatedDistance(vertex, goal) - heuristic.estimatedDistance(start, vertex)) / 2;
+    }
+}
@@ -0,0 +1,143 @@
+package graphs.shortestpaths;
+
+import graphs.CSRGraph;
+import graphs.Graph;
+
+import java.util.*;
+
+/**
+ * Dijkstra's algorithm implementation of the {@link ShortestPathSolver} interface over dense int vertex ids. The graph
+ * is first copied into a {@link CSRGraph}, unless it already is one, and the search then runs in a pooled
+ * {@link SearchWorkspace}, which keeps distances and parent pointers in primitive arrays indexed by id and its
+ * perimeter in an {@link IndexedDaryHeap}. Relaxing an edge reads three arrays and allocates nothing.
+ * <p>
+ * The constructor keeps the distance and parent of every vertex so that {@link #solution(Object)} can answer any goal,
+ * which costs one {@code double} and one {@code int} per vertex. For a single route,
+ * {@link #shortestPath(CSRGraph, Object, Object)} stops as soon as the goal is settled and allocates only the returned
+ * path, and {@link #distances(CSRGraph, int)} allocates only the returned distances.
+ *
+ * @param <V> the type of vertices.
+ * @see ShortestPathSolver
+ * @see DijkstraSolver
+ * @see IntAStarSolver
+ * @see CSRGraph
+ */
+public class IntDijkstraSolver<V> implements ShortestPathSolver<V> {
+    private final CSRGraph<V> graph;
+    private final double[] distTo;
+    private final int[] parent;
+
+    /**
+     * Constructs a new instance by executing Dijkstra's algorithm on the graph from the start.
+     *
+     * @param graph the input graph.
+     * @param start the start vertex.
+     */
+    public IntDijkstraSolver(Graph<V> graph, V start) {
+        this.graph = graph instanceof CSRGraph ? (CSRGraph<V>) graph : CSRGraph.from(graph, List.of(start));
+        int n = this.graph.vertexCount();
+        distTo = new double[n];
+        parent = new int[n];
+        try (SearchWorkspace search = SearchWorkspace.acquire(n)) {
+            search(this.graph, search, this.graph.id(start), SearchWorkspace.NONE);
+            for (int v = 0; v < n; v += 1) {
+                distTo[v] = search.distance(v);
+                parent[v] = distTo[v] < Double.POSITIVE_INFINITY ? search.parent(v) : SearchWorkspace.NONE;
+            }
+        }
+    }
+
+    /**
+     * Returns the shortest path from the start to the goal, searching only until the goal is settled.
+     *
+     * @param graph the input graph.
+     * @param start the start vertex.
+     * @param goal  the goal vertex.
+     * @param <V>   the type of vertices.
+     * @return a list of vertices representing the shortest path, or a list containing only the goal if the goal is
+     * unreachable.
+     */
+    public static <V> List<V> shortestPath(CSRGraph<V> graph, V start, V goal) {
+        List<V> path = new ArrayList<>();
+        int target = graph.id(goal);
+        try (SearchWorkspace search = SearchWorkspace.acquire(graph.vertexCount())) {
+            search(graph, search, graph.id(start), target);
+            if (target < 0 || search.distance(target) == Double.POSITIVE_INFINITY) {
+                path.add(goal);
+                return path;
+            }
+            for (int curr = target; curr != SearchWorkspace.NONE; curr = search.parent(curr)) {
+                path.add(graph.vertex(curr));
+            }
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Returns the length of the shortest path from the source to every vertex.
+     *
+     * @param graph  the input graph.
+     * @param source the id of the source vertex.
+     * @return the shortest-path distance to each vertex by id, or {@link Double#POSITIVE_INFINITY} if it is
+     * unreachable.
+     */
+    public static double[] distances(CSRGraph<?> graph, int source) {
+        double[] result = new double[graph.vertexCount()];
+        try (SearchWorkspace search = SearchWorkspace.acquire(result.length)) {
+            search(graph, search, source, SearchWorkspace.NONE);
+            for (int v = 0; v < result.length; v += 1) {
+                result[v] = search.distance(v);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from the source in the given workspace until the goal is settled, or until every
+     * reachable vertex is settled if the goal is {@link SearchWorkspace#NONE}.
+     */
+    private static void search(CSRGraph<?> graph, SearchWorkspace search, int source, int goal) {
+        if (source < 0) {
+            return;
+        }
+        search.relax(source, 0.0, SearchWorkspace.NONE, SearchWorkspace.NONE, 0.0);
+        while (!search.isEmpty()) {
+            int from = search.removeMin();
+            if (from == goal) {
+                return;
+            }
+            double fromDist = search.distance(from);
+            for (int e = graph.edgeStart(from); e < graph.edgeEnd(from); e += 1) {
+                double newDist = fromDist + graph.weight(e);
+                search.relax(graph.target(e), newDist, from, SearchWorkspace.NONE, newDist);
+            }
+        }
+    }
+
+    @Override
+    public List<V> solution(V goal) {
+        List<V> path = new ArrayList<>();
+        path.add(goal);
+        int id = graph.id(goal);
+        if (id < 0) {
+            return path;
+        }
+        for (int curr = parent[id]; curr != SearchWorkspace.NONE; curr = parent[curr]) {
+            path.add(graph.vertex(curr));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Returns the length of the shortest path from the start to the given vertex.
+     *
+     * @param goal the goal vertex.
+     * @return the shortest-path distance, or {@link Double#POSITIVE_INFINITY} if the goal is unreachable.
+     */
+    public double distTo(V goal) {
+        int id = graph.id(goal);
+        return id < 0 ? Double.POSITIVE_INFINITY : distTo[id];
+    }
+}
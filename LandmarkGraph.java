@@ -0,0 +1,149 @@
+package graphs;
+
+import graphs.shortestpaths.IntDijkstraSolver;
+
+import java.util.*;
+
+/**
+ * {@link AStarGraph} decorator whose heuristic adds landmark lower bounds (A*, landmarks and triangle inequality, or
+ * ALT) to the heuristic of the underlying graph. Preprocessing picks a few landmark vertices and stores the exact
+ * shortest-path distance from each landmark to every vertex and from every vertex to each landmark. By the triangle
+ * inequality, the distance from s to t is then at least d(s, L) - d(t, L) and at least d(L, t) - d(L, s) for every
+ * landmark L, and these bounds follow the actual streets around water and hills where straight-line distance cannot.
+ * <p>
+ * Each bound is a consistent heuristic, so their maximum with a consistent underlying heuristic is consistent too, and
+ * {@link graphs.shortestpaths.AStarSolver} still finds shortest paths while settling far fewer vertices. Landmarks are
+ * chosen by farthest-point selection: each new landmark is the vertex farthest from all landmarks chosen so far, so
+ * the landmarks end up spread around the edge of the graph, behind most routes.
+ *
+ * @param <V> the type of vertices.
+ * @see AStarGraph
+ * @see CSRGraph
+ */
+public class LandmarkGraph<V> implements AStarGraph<V> {
+    private final AStarGraph<V> delegate;
+    /**
+     * A copy of the underlying graph, which numbers its vertices with the dense ids that index the distances.
+     */
+    private final CSRGraph<V> ids;
+    private final List<V> landmarks;
+    /**
+     * For each landmark, the distance from the landmark to each vertex, by id.
+     */
+    private final double[][] fromLandmark;
+    /**
+     * For each landmark, the distance from each vertex to the landmark, by id.
+     */
+    private final double[][] toLandmark;
+
+    /**
+     * Constructs a decorator of the given graph with the given number of landmarks chosen from the part of the graph
+     * reachable from the given vertices.
+     *
+     * @param delegate      the underlying graph.
+     * @param vertices      the vertices whose reachable part of the graph to include.
+     * @param landmarkCount the number of landmarks to choose.
+     */
+    public LandmarkGraph(AStarGraph<V> delegate, Collection<? extends V> vertices, int landmarkCount) {
+        this.delegate = delegate;
+        ids = CSRGraph.from(delegate, vertices);
+        CSRGraph<V> reverse = ids.reverse();
+        int n = ids.vertexCount();
+        landmarks = new ArrayList<>();
+        fromLandmark = new double[Math.min(landmarkCount, n)][];
+        toLandmark = new double[fromLandmark.length][];
+        if (n == 0) {
+            return;
+        }
+        // The first landmark is the vertex farthest from an arbitrary vertex, which already lies near the edge.
+        int next = farthest(IntDijkstraSolver.distances(ids, 0), null);
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < fromLandmark.length; i += 1) {
+            landmarks.add(ids.vertex(next));
+            fromLandmark[i] = IntDijkstraSolver.distances(ids, next);
+            toLandmark[i] = IntDijkstraSolver.distances(reverse, next);
+            for (int v = 0; v < n; v += 1) {
+                nearest[v] = Math.min(nearest[v], fromLandmark[i][v]);
+            }
+            next = farthest(nearest, fromLandmark[i]);
+        }
+    }
+
+    /**
+     * Returns the id with the greatest finite distance, considering only vertices reachable from the latest landmark
+     * if its distances are given.
+     */
+    private static int farthest(double[] distances, double[] reachable) {
+        int result = 0;
+        double farthest = -1.0;
+        for (int v = 0; v < distances.length; v += 1) {
+            boolean candidate = reachable == null || reachable[v] < Double.POSITIVE_INFINITY;
+            if (candidate && distances[v] < Double.POSITIVE_INFINITY && distances[v] > farthest) {
+                result = v;
+                farthest = distances[v];
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Edge<V>> neighbors(V vertex) {
+        return delegate.neighbors(vertex);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns the greatest of the underlying estimate and the landmark lower bounds. Bounds involving a vertex that
+     * cannot reach or be reached from a landmark are skipped.
+     */
+    @Override
+    public double estimatedDistance(V start, V end) {
+        double result = delegate.estimatedDistance(start, end);
+        int s = ids.id(start);
+        int t = ids.id(end);
+        if (s < 0 || t < 0) {
+            return result;
+        }
+        for (int i = 0; i < landmarks.size(); i += 1) {
+            double[] to = toLandmark[i];
+            if (to[s] < Double.POSITIVE_INFINITY && to[t] < Double.POSITIVE_INFINITY) {
+                result = Math.max(result, to[s] - to[t]);
+            }
+            double[] from = fromLandmark[i];
+            if (from[s] < Double.POSITIVE_INFINITY && from[t] < Double.POSITIVE_INFINITY) {
+                result = Math.max(result, from[t] - from[s]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the landmarks in the order they were chosen.
+     *
+     * @return a read-only list of the landmarks.
+     */
+    public List<V> landmarks() {
+        return Collections.unmodifiableList(landmarks);
+    }
+
+    /**
+     * Returns the number of bytes of distances stored for each landmark: two doubles per vertex.
+     *
+     * @return the memory used by each landmark in bytes.
+     */
+    public long memoryPerLandmark() {
+        return 2L * ids.vertexCount() * Double.BYTES;
+    }
+
+    /**
+     * Returns the estimated number of bytes used by this decorator, excluding the underlying graph and the vertex
+     * objects themselves.
+     *
+     * @return the estimated memory footprint of this decorator in bytes.
+     */
+    public long memoryFootprint() {
+        return landmarks.size() * memoryPerLandmark() + ids.memoryFootprint();
+    }
+}
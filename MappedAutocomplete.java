@@ -0,0 +1,441 @@
+package autocomplete;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Read-only implementation of the {@link Autocomplete} interface that queries a prebuilt index file in place through a
+ * memory-mapped buffer, so opening an index costs little more than the {@code mmap} call and a scan of its offsets,
+ * and processes on the same host share its pages. Index files are written by {@link #write(Map, Path, long)} in the
+ * following big-endian layout:
+ * <ol>
+ *     <li>the magic number and format version, each an {@code int};</li>
+ *     <li>the source stamp as a {@code long}, identifying the data the index was built from;</li>
+ *     <li>the number of terms <i>n</i> as an {@code int};</li>
+ *     <li><i>n + 1</i> {@code int} offsets into the character data, one for the start of each term in sorted order
+ *     followed by the end of the last term;</li>
+ *     <li><i>n</i> {@code double} weights in the same order;</li>
+ *     <li>the characters of every term, concatenated in sorted order.</li>
+ * </ol>
+ * Files are written to a temporary file and then moved into place, so a reader never sees a partly written index, and
+ * opening a file that is too short for its own offset table, or whose offsets are out of order or point past the end
+ * of the file, fails rather than returning a broken index. Every position in the file is an {@code int}, so an index
+ * file may be at most {@link Integer#MAX_VALUE} bytes long.
+ *
+ * @see Autocomplete
+ */
+public class MappedAutocomplete implements Autocomplete {
+    /**
+     * Magic number identifying an index file: the characters "ACIX".
+     */
+    private static final int MAGIC = 0x41434958;
+    /**
+     * Version of the index file layout.
+     */
+    private static final int VERSION = 2;
+    /**
+     * Size of the header in bytes: magic number, version, source stamp, and number of terms.
+     */
+    private static final int HEADER_BYTES = 3 * Integer.BYTES + Long.BYTES;
+
+    /**
+     * The mapped index file. Only absolute reads are used, so the buffer can be shared by concurrent queries.
+     */
+    private final ByteBuffer buffer;
+    private final long sourceStamp;
+    /**
+     * The number of terms in the index.
+     */
+    private final int size;
+    /**
+     * The byte positions of the offset table, the weight table, and the character data.
+     */
+    private final int offsetsStart;
+    private final int weightsStart;
+    private final int dataStart;
+
+    /**
+     * Constructs an instance over the given index file contents.
+     *
+     * @param buffer the contents of an index file.
+     * @throws IOException if the buffer does not contain a complete index file.
+     */
+    private MappedAutocomplete(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not an autocomplete index");
+        } else if (buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("unsupported autocomplete index version " + buffer.getInt(Integer.BYTES));
+        }
+        this.buffer = buffer;
+        this.sourceStamp = buffer.getLong(2 * Integer.BYTES);
+        this.size = buffer.getInt(2 * Integer.BYTES + Long.BYTES);
+        // Check that the tables fit before reading the end offset from them, then that the characters fit.
+        long tablesEnd = HEADER_BYTES + (size + 1L) * Integer.BYTES + (long) size * Double.BYTES;
+        if (size < 0 || tablesEnd > buffer.limit()) {
+            throw new IOException("truncated autocomplete index");
+        }
+        this.offsetsStart = HEADER_BYTES;
+        this.weightsStart = offsetsStart + (size + 1) * Integer.BYTES;
+        this.dataStart = weightsStart + size * Double.BYTES;
+        if (offset(0) != 0 || offset(size) < 0 || dataStart + (long) offset(size) * Character.BYTES > buffer.limit()) {
+            throw new IOException("truncated autocomplete index");
+        }
+        // Queries trust every offset, so an offset out of order would fail mid-query instead of here.
+        for (int i = 0; i < size; i += 1) {
+            if (offset(i) > offset(i + 1)) {
+                throw new IOException("corrupt autocomplete index: offset " + (i + 1) + " is out of order");
+            }
+        }
+    }
+
+    /**
+     * Opens the index file at the given path by mapping it into memory.
+     *
+     * @param path the path to an index file written by {@link #write(Map, Path, long)}.
+     * @return an instance that queries the index file in place.
+     * @throws IOException if the file cannot be read, is not a complete index file, or is too large to map.
+     */
+    public static MappedAutocomplete open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("autocomplete index of " + channel.size() + " bytes is too large to map");
+            }
+            return new MappedAutocomplete(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes an index file for the given weighted terms to the given path with a source stamp of 0.
+     *
+     * @param terms map from each term to its weight.
+     * @param path  the path of the index file to write.
+     * @throws IOException if the file cannot be written.
+     * @see #write(Map, Path, long)
+     */
+    public static void write(Map<? extends CharSequence, Double> terms, Path path) throws IOException {
+        write(terms, path, 0);
+    }
+
+    /**
+     * Writes an index file for the given weighted terms to the given path. The file is written to a temporary file in
+     * the same directory and then atomically moved into place, replacing any existing index.
+     *
+     * @param terms       map from each term to its weight.
+     * @param path        the path of the index file to write.
+     * @param sourceStamp a value identifying the data the terms came from, such as its modification time, so that
+     *                    readers can tell when the index is stale.
+     * @throws IOException if the file cannot be written, or if the index would exceed {@link Integer#MAX_VALUE} bytes.
+     */
+    public static void write(Map<? extends CharSequence, Double> terms, Path path, long sourceStamp)
+            throws IOException {
+        NavigableMap<CharSequence, Double> sorted = new TreeMap<>(CharSequence::compare);
+        sorted.putAll(terms);
+        Path directory = path.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            writeSorted(sorted, temporary, sourceStamp);
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Writes the sorted terms in the index file layout to the given path, after checking that the file will be small
+     * enough for its positions and offsets to fit in an {@code int}.
+     */
+    private static void writeSorted(NavigableMap<CharSequence, Double> sorted, Path path, long sourceStamp)
+            throws IOException {
+        long chars = 0;
+        for (CharSequence term : sorted.keySet()) {
+            chars += term.length();
+        }
+        long bytes = HEADER_BYTES + (sorted.size() + 1L) * Integer.BYTES + (long) sorted.size() * Double.BYTES
+                + chars * Character.BYTES;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("autocomplete index of " + bytes + " bytes is too large to map");
+        }
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(sourceStamp);
+            output.writeInt(sorted.size());
+            int offset = 0;
+            output.writeInt(offset);
+            for (CharSequence term : sorted.keySet()) {
+                offset += term.length();
+                output.writeInt(offset);
+            }
+            for (double weight : sorted.values()) {
+                output.writeDouble(weight);
+            }
+            for (CharSequence term : sorted.keySet()) {
+                output.writeChars(term.toString());
+            }
+        }
+    }
+
+    /**
+     * Unsupported: index files are immutable once written.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        throw new UnsupportedOperationException("read-only index");
+    }
+
+    /**
+     * Unsupported: index files are immutable once written.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void addAll(Map<? extends CharSequence, Double> terms) {
+        throw new UnsupportedOperationException("read-only index");
+    }
+
+    /**
+     * Unsupported: index files are immutable once written.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public boolean remove(CharSequence term) {
+        throw new UnsupportedOperationException("read-only index");
+    }
+
+    /**
+     * Unsupported: index files are immutable once written.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public boolean updateWeight(CharSequence term, double weight) {
+        throw new UnsupportedOperationException("read-only index");
+    }
+
+    /**
+     * Returns the source stamp the index file was written with.
+     *
+     * @return the source stamp of the index file.
+     */
+    public long sourceStamp() {
+        return sourceStamp;
+    }
+
+    /**
+     * Returns the number of terms in the index file.
+     *
+     * @return the number of terms.
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return allMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix, VisitSink visits) {
+        return matches(prefix, visits).collect(Collectors.toList());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Answers a prefix of another prefix in the batch first, then finds the matches of the longer prefix by binary
+     * search within its matches.
+     */
+    @Override
+    public List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes) {
+        return PrefixBatch.sortedMatches(prefixes, this::allMatches);
+    }
+
+    @Override
+    public Stream<CharSequence> matches(CharSequence prefix) {
+        return matches(prefix, VisitSink.NONE);
+    }
+
+    /**
+     * Returns a lazily-evaluated stream of the terms that match the given prefix, reporting the probes of the binary
+     * searches that find them to the given sink.
+     */
+    private Stream<CharSequence> matches(CharSequence prefix, VisitSink visits) {
+        if (prefix == null || prefix.length() == 0) {
+            return Stream.empty();
+        }
+        int start = start(prefix, visits);
+        return IntStream.range(start, end(prefix, start, visits)).mapToObj(this::term);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        return countMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix, VisitSink visits) {
+        if (prefix == null || prefix.length() == 0) {
+            return 0;
+        }
+        int start = start(prefix, visits);
+        return end(prefix, start, visits) - start;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Selects the k best matches by their stored weights and decodes only those terms.
+     */
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        return topMatches(prefix, k, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k, VisitSink visits) {
+        List<CharSequence> result = new ArrayList<>();
+        if (prefix == null || prefix.length() == 0 || k <= 0) {
+            return result;
+        }
+        int start = start(prefix, visits);
+        int end = end(prefix, start, visits);
+        visits.visited(end - start);
+        PriorityQueue<Integer> best = new PriorityQueue<>(Comparator.comparingDouble(this::weight));
+        for (int i = start; i < end; i += 1) {
+            if (best.size() < k) {
+                best.add(i);
+            } else if (weight(i) > weight(best.peek())) {
+                best.remove();
+                best.add(i);
+            }
+        }
+        while (!best.isEmpty()) {
+            result.add(term(best.remove()));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns the size of the mapped index file, whose pages live outside the heap and are shared between processes.
+     */
+    @Override
+    public long memoryFootprint() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Returns the index of the first term that is greater than or equal to the prefix, and reports the number of
+     * probes to the given sink.
+     */
+    private int start(CharSequence prefix, VisitSink visits) {
+        int low = 0;
+        int high = size;
+        int probes = 0;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            probes += 1;
+            if (compare(middle, prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        visits.visited(probes);
+        return low;
+    }
+
+    /**
+     * Returns the index of the first term at or after the start that does not match the prefix, and reports the number
+     * of probes to the given sink.
+     */
+    private int end(CharSequence prefix, int start, VisitSink visits) {
+        int low = start;
+        int high = size;
+        int probes = 0;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            probes += 1;
+            if (isPrefixOf(prefix, middle)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        visits.visited(probes);
+        return low;
+    }
+
+    /**
+     * Compares the i-th term with the given text in place, like {@link CharSequence#compare}.
+     */
+    private int compare(int i, CharSequence text) {
+        int offset = offset(i);
+        int length = offset(i + 1) - offset;
+        int n = Math.min(length, text.length());
+        for (int j = 0; j < n; j += 1) {
+            char c = charAt(offset + j);
+            if (c != text.charAt(j)) {
+                return c - text.charAt(j);
+            }
+        }
+        return length - text.length();
+    }
+
+    /**
+     * Returns true if and only if the i-th term matches the given prefix, comparing in place.
+     */
+    private boolean isPrefixOf(CharSequence prefix, int i) {
+        int offset = offset(i);
+        if (offset(i + 1) - offset < prefix.length()) {
+            return false;
+        }
+        for (int j = 0; j < prefix.length(); j += 1) {
+            if (charAt(offset + j) != prefix.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the i-th term.
+     */
+    private String term(int i) {
+        int offset = offset(i);
+        char[] chars = new char[offset(i + 1) - offset];
+        for (int j = 0; j < chars.length; j += 1) {
+            chars[j] = charAt(offset + j);
+        }
+        return new String(chars);
+    }
+
+    private int offset(int i) {
+        return buffer.getInt(offsetsStart + i * Integer.BYTES);
+    }
+
+    private double weight(int i) {
+        return buffer.getDouble(weightsStart + i * Double.BYTES);
+    }
+
+    private char charAt(int position) {
+        return buffer.getChar(dataStart + position * Character.BYTES);
+    }
+}
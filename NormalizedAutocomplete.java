@@ -0,0 +1,286 @@
+package autocomplete;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Case- and punctuation-insensitive implementation of the {@link Autocomplete} interface. Each term is folded once
+ * when it is added (see {@link #normalize(CharSequence)}) and the folded key is stored in an underlying index that
+ * maps back to the original terms. A query folds only its prefix and then costs the same as an exact-character query
+ * on the underlying index.
+ *
+ * @see Autocomplete
+ */
+public class NormalizedAutocomplete implements Autocomplete {
+    /**
+     * Estimated size in bytes of the entries for one original term: a {@link TreeMap} entry with its boxed weight and
+     * a reference in the list of originals.
+     */
+    private static final int TERM_BYTES = 60;
+    /**
+     * Estimated size in bytes of the entry for one folded key, excluding its characters: a {@link HashMap} entry, the
+     * key {@link String}, and the list of originals.
+     */
+    private static final int KEY_BYTES = 112;
+    /**
+     * Exact-character index of folded keys, each weighted by the best weight of its original terms.
+     */
+    private final Autocomplete index;
+    /**
+     * {@link Map} of folded keys to the original terms that fold to them.
+     */
+    private final Map<String, List<CharSequence>> originals;
+    /**
+     * {@link Map} of original terms to their weights.
+     */
+    private final Map<CharSequence, Double> weights;
+
+    /**
+     * Constructs an empty instance that stores folded keys in the given empty index.
+     *
+     * @param index empty {@link Autocomplete} instance for the folded keys.
+     */
+    public NormalizedAutocomplete(Autocomplete index) {
+        this.index = index;
+        this.originals = new HashMap<>();
+        this.weights = new TreeMap<>(CharSequence::compare);
+    }
+
+    /**
+     * Returns the folded form of the given text: lowercase, without diacritics or punctuation (including curly and
+     * straight quotes), with dashes treated as spaces and runs of whitespace collapsed to a single space. Each term is
+     * stored under exactly its folded form, so a term matches a prefix whenever its folded form starts with the folded
+     * prefix.
+     *
+     * @param text text to fold.
+     * @return the folded form of the text.
+     */
+    public static String normalize(CharSequence text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder result = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i += 1) {
+            char c = decomposed.charAt(i);
+            int type = Character.getType(c);
+            if (Character.isWhitespace(c) || type == Character.DASH_PUNCTUATION
+                    || type == Character.CONNECTOR_PUNCTUATION) {
+                if (result.length() > 0 && result.charAt(result.length() - 1) != ' ') {
+                    result.append(' ');
+                }
+            } else if (type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK
+                    || type == Character.COMBINING_SPACING_MARK || isPunctuation(type)) {
+                continue;
+            } else {
+                result.append(Character.toLowerCase(c));
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns true if and only if the given character type is a kind of punctuation to be dropped.
+     */
+    private static boolean isPunctuation(int type) {
+        return type == Character.START_PUNCTUATION || type == Character.END_PUNCTUATION
+                || type == Character.INITIAL_QUOTE_PUNCTUATION || type == Character.FINAL_QUOTE_PUNCTUATION
+                || type == Character.OTHER_PUNCTUATION;
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        Set<String> changed = new HashSet<>();
+        for (CharSequence term : terms) {
+            if (weights.putIfAbsent(term, 0.0) == null) {
+                changed.add(register(term));
+            }
+        }
+        reindex(changed);
+    }
+
+    @Override
+    public void addAll(Map<? extends CharSequence, Double> terms) {
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<? extends CharSequence, Double> entry : terms.entrySet()) {
+            CharSequence term = entry.getKey();
+            if (weights.put(term, entry.getValue()) == null) {
+                changed.add(register(term));
+            } else {
+                changed.add(normalize(term));
+            }
+        }
+        reindex(changed);
+    }
+
+    /**
+     * Records the new term under its folded key and returns the key.
+     */
+    private String register(CharSequence term) {
+        String key = normalize(term);
+        originals.computeIfAbsent(key, k -> new ArrayList<>()).add(term);
+        return key;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Removes the folded key from the index only when no other original term folds to it, and otherwise reweights it
+     * by the best of the remaining originals.
+     */
+    @Override
+    public boolean remove(CharSequence term) {
+        if (weights.remove(term) == null) {
+            return false;
+        }
+        String key = normalize(term);
+        List<CharSequence> terms = originals.get(key);
+        terms.removeIf(original -> CharSequence.compare(original, term) == 0);
+        if (terms.isEmpty()) {
+            originals.remove(key);
+            if (!key.isEmpty()) {
+                index.remove(key);
+            }
+        } else {
+            reweight(key);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean updateWeight(CharSequence term, double weight) {
+        if (!weights.containsKey(term)) {
+            return false;
+        }
+        weights.put(term, weight);
+        reweight(normalize(term));
+        return true;
+    }
+
+    /**
+     * Updates the weight of the given folded key in the index to the best weight of its original terms.
+     */
+    private void reweight(String key) {
+        if (!key.isEmpty()) {
+            index.updateWeight(key, bestWeight(key));
+        }
+    }
+
+    /**
+     * Returns the best weight of the original terms that fold to the given key.
+     */
+    private double bestWeight(String key) {
+        double best = Double.NEGATIVE_INFINITY;
+        for (CharSequence term : originals.get(key)) {
+            best = Math.max(best, weights.get(term));
+        }
+        return best;
+    }
+
+    /**
+     * Adds the given folded keys to the index, each weighted by the best weight of its original terms.
+     */
+    private void reindex(Set<String> keys) {
+        Map<CharSequence, Double> keyWeights = new HashMap<>(keys.size());
+        for (String key : keys) {
+            if (key.isEmpty()) {
+                // Terms made only of punctuation cannot be matched by any prefix.
+                continue;
+            }
+            keyWeights.put(key, bestWeight(key));
+        }
+        index.addAll(keyWeights);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Includes the folded keys, which are copies, and the footprint of the underlying index.
+     */
+    @Override
+    public long memoryFootprint() {
+        long index = this.index.memoryFootprint();
+        if (index < 0) {
+            return index;
+        }
+        long keys = 0;
+        for (String key : originals.keySet()) {
+            keys += KEY_BYTES + (long) key.length() * Character.BYTES;
+        }
+        return index + keys + (long) weights.size() * TERM_BYTES;
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return allMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix, VisitSink visits) {
+        List<CharSequence> result = new ArrayList<>();
+        for (CharSequence key : index.allMatches(normalize(prefix), visits)) {
+            result.addAll(originals.get(key.toString()));
+        }
+        return result;
+    }
+
+    @Override
+    public List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes) {
+        return expand(index.allMatchesBatch(fold(prefixes)));
+    }
+
+    @Override
+    public List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes, ForkJoinPool pool) {
+        return expand(index.allMatchesBatch(fold(prefixes), pool));
+    }
+
+    /**
+     * Returns the folded form of each prefix.
+     */
+    private static List<CharSequence> fold(List<? extends CharSequence> prefixes) {
+        List<CharSequence> result = new ArrayList<>(prefixes.size());
+        for (CharSequence prefix : prefixes) {
+            result.add(normalize(prefix));
+        }
+        return result;
+    }
+
+    /**
+     * Replaces each list of matching folded keys with the original terms that fold to them.
+     */
+    private List<List<CharSequence>> expand(List<List<CharSequence>> keys) {
+        List<List<CharSequence>> result = new ArrayList<>(keys.size());
+        for (List<CharSequence> matches : keys) {
+            List<CharSequence> terms = new ArrayList<>();
+            for (CharSequence key : matches) {
+                terms.addAll(originals.get(key.toString()));
+            }
+            result.add(terms);
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<CharSequence> matches(CharSequence prefix) {
+        return index.matches(normalize(prefix)).flatMap(key -> originals.get(key.toString()).stream());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each folded key is weighted by the best of its original terms, so the k best original terms are always among
+     * the originals of the k best folded keys.
+     */
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        return topMatches(prefix, k, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k, VisitSink visits) {
+        List<CharSequence> candidates = new ArrayList<>();
+        for (CharSequence key : index.topMatches(normalize(prefix), k, visits)) {
+            candidates.addAll(originals.get(key.toString()));
+        }
+        return Autocomplete.topK(candidates, weights::get, k);
+    }
+}
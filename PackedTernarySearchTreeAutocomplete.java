@@ -0,0 +1,597 @@
+package autocomplete;
+
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Ternary search tree (TST) implementation of the {@link Autocomplete} interface that stores its nodes in parallel
+ * primitive arrays instead of one object per character. Node 0 is reserved to represent the absence of a node, so a
+ * freshly allocated child link already points nowhere. Terms are added, removed, and searched iteratively, and the
+ * slots of nodes pruned by removal are reused by later additions.
+ *
+ * @see Autocomplete
+ * @see TernarySearchTreeAutocomplete
+ */
+public class PackedTernarySearchTreeAutocomplete implements Autocomplete {
+    /**
+     * Index representing the absence of a node.
+     */
+    private static final int NIL = 0;
+    /**
+     * Initial number of node slots.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * Estimated size of an array header in bytes.
+     */
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    /**
+     * The character of each node.
+     */
+    private char[] data;
+    /**
+     * The left, middle, and right child of each node.
+     */
+    private int[] left;
+    private int[] mid;
+    private int[] right;
+    /**
+     * The weight of each terminal node and the best weight of any term in the subtree rooted at each node.
+     */
+    private double[] weight;
+    private double[] max;
+    /**
+     * The number of terms in the subtree rooted at each node, so that matches are counted without walking them.
+     */
+    private int[] count;
+    /**
+     * The set of nodes that complete an autocompletion term.
+     */
+    private final BitSet terminal;
+    /**
+     * The root of the tree, or {@link #NIL} if the tree is empty.
+     */
+    private int root;
+    /**
+     * The number of node slots allocated, including the reserved slot 0 and any free slots.
+     */
+    private int size;
+    /**
+     * The first free node slot, or {@link #NIL} if there is none. Free slots are chained through their middle links.
+     */
+    private int freeList;
+    /**
+     * The number of free node slots.
+     */
+    private int freeCount;
+    /**
+     * Nodes visited while adding the current term, used to update best weights bottom-up.
+     */
+    private int[] path;
+
+    /**
+     * Constructs an empty instance.
+     */
+    public PackedTernarySearchTreeAutocomplete() {
+        data = new char[INITIAL_CAPACITY];
+        left = new int[INITIAL_CAPACITY];
+        mid = new int[INITIAL_CAPACITY];
+        right = new int[INITIAL_CAPACITY];
+        weight = new double[INITIAL_CAPACITY];
+        max = new double[INITIAL_CAPACITY];
+        count = new int[INITIAL_CAPACITY];
+        terminal = new BitSet();
+        root = NIL;
+        size = 1;
+        freeList = NIL;
+        freeCount = 0;
+        path = new int[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        for (CharSequence term : terms) {
+            add(term, 0.0, false);
+        }
+    }
+
+    @Override
+    public void addAll(Map<? extends CharSequence, Double> terms) {
+        for (Map.Entry<? extends CharSequence, Double> entry : terms.entrySet()) {
+            add(entry.getKey(), entry.getValue(), true);
+        }
+    }
+
+    /**
+     * Iteratively adds a term to the tree, character by character, then updates the best weight of every node on the
+     * path from the deepest node back up to the root.
+     *
+     * @param replace whether to replace the weight of the term if it is already present.
+     */
+    private void add(CharSequence term, double termWeight, boolean replace) {
+        int depth = 0;
+        int parent = NIL;
+        int direction = 0;
+        int node = root;
+        int index = 0;
+        while (true) {
+            char currentChar = term.charAt(index);
+            if (node == NIL) {
+                node = newNode(currentChar);
+                if (parent != NIL) {
+                    links(direction)[parent] = node;
+                } else {
+                    root = node;
+                }
+            }
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, depth * 2);
+            }
+            path[depth] = node;
+            depth += 1;
+            parent = node;
+            if (currentChar < data[node]) {
+                direction = -1;
+            } else if (currentChar > data[node]) {
+                direction = 1;
+            } else if (index + 1 < term.length()) {
+                direction = 0;
+                index += 1;
+            } else {
+                if (!terminal.get(node) || replace) {
+                    weight[node] = termWeight;
+                }
+                terminal.set(node);
+                break;
+            }
+            node = links(direction)[node];
+        }
+        for (int i = depth - 1; i >= 0; i -= 1) {
+            update(path[i]);
+        }
+    }
+
+    /**
+     * Returns the child link array for the given direction: negative for left, zero for middle, positive for right.
+     */
+    private int[] links(int direction) {
+        if (direction < 0) {
+            return left;
+        } else if (direction > 0) {
+            return right;
+        }
+        return mid;
+    }
+
+    /**
+     * Allocates a new node for the given character, reusing a free slot if there is one and otherwise growing the
+     * arrays if necessary.
+     */
+    private int newNode(char c) {
+        if (freeList != NIL) {
+            int node = freeList;
+            freeList = mid[node];
+            freeCount -= 1;
+            data[node] = c;
+            mid[node] = NIL;
+            max[node] = Double.NEGATIVE_INFINITY;
+            return node;
+        }
+        if (size == data.length) {
+            int capacity = data.length * 2;
+            data = Arrays.copyOf(data, capacity);
+            left = Arrays.copyOf(left, capacity);
+            mid = Arrays.copyOf(mid, capacity);
+            right = Arrays.copyOf(right, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+            max = Arrays.copyOf(max, capacity);
+            count = Arrays.copyOf(count, capacity);
+        }
+        int node = size;
+        size += 1;
+        data[node] = c;
+        max[node] = Double.NEGATIVE_INFINITY;
+        return node;
+    }
+
+    /**
+     * Returns the slot of the given node to the free list. The node must already be unlinked from the tree.
+     */
+    private void release(int node) {
+        left[node] = NIL;
+        right[node] = NIL;
+        mid[node] = freeList;
+        weight[node] = 0.0;
+        count[node] = 0;
+        freeList = node;
+        freeCount += 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Unmarks the last node of the term, then walks back up its path and prunes every node that no longer leads to
+     * any term, replacing it by its left and right subtrees.
+     */
+    @Override
+    public boolean remove(CharSequence term) {
+        int depth = trace(term);
+        if (depth == 0) {
+            return false;
+        }
+        terminal.clear(path[depth - 1]);
+        for (int i = depth - 1; i >= 0; i -= 1) {
+            int node = path[i];
+            if (terminal.get(node) || mid[node] != NIL) {
+                update(node);
+                continue;
+            }
+            int replacement = join(left[node], right[node]);
+            if (i == 0) {
+                root = replacement;
+            } else if (left[path[i - 1]] == node) {
+                left[path[i - 1]] = replacement;
+            } else if (right[path[i - 1]] == node) {
+                right[path[i - 1]] = replacement;
+            } else {
+                mid[path[i - 1]] = replacement;
+            }
+            release(node);
+        }
+        return true;
+    }
+
+    /**
+     * Joins two sibling subtrees, where every character in the left subtree is less than every character in the right
+     * subtree, by hanging the left subtree below the smallest node of the right subtree. Returns the joined root.
+     */
+    private int join(int leftRoot, int rightRoot) {
+        if (leftRoot == NIL) {
+            return rightRoot;
+        } else if (rightRoot == NIL) {
+            return leftRoot;
+        }
+        int[] chain = new int[INITIAL_CAPACITY];
+        int depth = 0;
+        int node = rightRoot;
+        while (node != NIL) {
+            if (depth == chain.length) {
+                chain = Arrays.copyOf(chain, depth * 2);
+            }
+            chain[depth] = node;
+            depth += 1;
+            node = left[node];
+        }
+        left[chain[depth - 1]] = leftRoot;
+        for (int i = depth - 1; i >= 0; i -= 1) {
+            update(chain[i]);
+        }
+        return rightRoot;
+    }
+
+    @Override
+    public boolean updateWeight(CharSequence term, double termWeight) {
+        int depth = trace(term);
+        if (depth == 0) {
+            return false;
+        }
+        weight[path[depth - 1]] = termWeight;
+        for (int i = depth - 1; i >= 0; i -= 1) {
+            update(path[i]);
+        }
+        return true;
+    }
+
+    /**
+     * Iteratively finds the node that completes the given term, recording every node on the way in {@link #path}.
+     *
+     * @return the number of nodes on the path, or 0 if the term is not present.
+     */
+    private int trace(CharSequence term) {
+        if (term == null || term.length() == 0) {
+            return 0;
+        }
+        int depth = 0;
+        int node = root;
+        int index = 0;
+        while (node != NIL) {
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, depth * 2);
+            }
+            path[depth] = node;
+            depth += 1;
+            char currentChar = term.charAt(index);
+            if (currentChar < data[node]) {
+                node = left[node];
+            } else if (currentChar > data[node]) {
+                node = right[node];
+            } else if (index + 1 == term.length()) {
+                return terminal.get(node) ? depth : 0;
+            } else {
+                node = mid[node];
+                index += 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Recomputes the best weight and the number of terms of the subtree rooted at the given node from the node and its
+     * children.
+     */
+    private void update(int node) {
+        double best = terminal.get(node) ? weight[node] : Double.NEGATIVE_INFINITY;
+        int terms = terminal.get(node) ? 1 : 0;
+        if (left[node] != NIL) {
+            best = Math.max(best, max[left[node]]);
+            terms += count[left[node]];
+        }
+        if (mid[node] != NIL) {
+            best = Math.max(best, max[mid[node]]);
+            terms += count[mid[node]];
+        }
+        if (right[node] != NIL) {
+            best = Math.max(best, max[right[node]]);
+            terms += count[right[node]];
+        }
+        max[node] = best;
+        count[node] = terms;
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return allMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix, VisitSink visits) {
+        List<CharSequence> result = new ArrayList<>();
+        int prefixNode = getNode(prefix, visits);
+        if (prefixNode == NIL) {
+            return result;
+        }
+        if (terminal.get(prefixNode)) {
+            result.add(prefix.toString());
+        }
+        new MatchIterator(mid[prefixNode], prefix).forEachRemaining(result::add);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Answers a prefix of another prefix in the batch first, then finds the matches of the longer prefix by binary
+     * search within its matches.
+     */
+    @Override
+    public List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes) {
+        return PrefixBatch.sortedMatches(prefixes, this::allMatches);
+    }
+
+    @Override
+    public Stream<CharSequence> matches(CharSequence prefix) {
+        int prefixNode = getNode(prefix, VisitSink.NONE);
+        if (prefixNode == NIL) {
+            return Stream.empty();
+        }
+        Stream<CharSequence> rest = StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                new MatchIterator(mid[prefixNode], prefix), Spliterator.ORDERED | Spliterator.NONNULL), false);
+        if (terminal.get(prefixNode)) {
+            return Stream.concat(Stream.of(prefix.toString()), rest);
+        }
+        return rest;
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        return countMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix, VisitSink visits) {
+        int prefixNode = getNode(prefix, visits);
+        if (prefixNode == NIL) {
+            return 0;
+        }
+        int terms = terminal.get(prefixNode) ? 1 : 0;
+        if (mid[prefixNode] != NIL) {
+            terms += count[mid[prefixNode]];
+        }
+        return terms;
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        return topMatches(prefix, k, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k, VisitSink visits) {
+        List<CharSequence> result = new ArrayList<>();
+        int prefixNode = getNode(prefix, visits);
+        if (prefixNode == NIL || k <= 0) {
+            return result;
+        }
+        PriorityQueue<Candidate> perimeter = new PriorityQueue<>();
+        if (terminal.get(prefixNode)) {
+            perimeter.add(new Candidate(NIL, prefix.toString(), weight[prefixNode]));
+        }
+        if (mid[prefixNode] != NIL) {
+            perimeter.add(new Candidate(mid[prefixNode], prefix.toString(), max[mid[prefixNode]]));
+        }
+        int expanded = 0;
+        while (!perimeter.isEmpty() && result.size() < k) {
+            Candidate candidate = perimeter.remove();
+            int node = candidate.node;
+            if (node == NIL) {
+                result.add(candidate.prefix);
+                continue;
+            }
+            expanded += 1;
+            String newPrefix = candidate.prefix + data[node];
+            if (terminal.get(node)) {
+                perimeter.add(new Candidate(NIL, newPrefix, weight[node]));
+            }
+            if (left[node] != NIL) {
+                perimeter.add(new Candidate(left[node], candidate.prefix, max[left[node]]));
+            }
+            if (mid[node] != NIL) {
+                perimeter.add(new Candidate(mid[node], newPrefix, max[mid[node]]));
+            }
+            if (right[node] != NIL) {
+                perimeter.add(new Candidate(right[node], candidate.prefix, max[right[node]]));
+            }
+        }
+        visits.visited(expanded);
+        return result;
+    }
+
+    /**
+     * Iteratively finds the node corresponding to the last character of the prefix, and reports the nodes it descends
+     * through to the given sink.
+     *
+     * @return the node for the last character of the prefix, or {@link #NIL} if there is no such node.
+     */
+    private int getNode(CharSequence prefix, VisitSink visits) {
+        if (prefix == null || prefix.length() == 0) {
+            return NIL;
+        }
+        int node = root;
+        int index = 0;
+        int descended = 0;
+        while (node != NIL) {
+            descended += 1;
+            char currentChar = prefix.charAt(index);
+            if (currentChar < data[node]) {
+                node = left[node];
+            } else if (currentChar > data[node]) {
+                node = right[node];
+            } else if (index + 1 == prefix.length()) {
+                break;
+            } else {
+                node = mid[node];
+                index += 1;
+            }
+        }
+        visits.visited(descended);
+        return node;
+    }
+
+    /**
+     * Returns the number of nodes in this tree.
+     *
+     * @return the number of nodes in this tree.
+     */
+    public int nodeCount() {
+        return size - 1 - freeCount;
+    }
+
+    /**
+     * Returns the estimated number of bytes used by the arrays backing this tree, including unused capacity.
+     *
+     * @return the estimated memory footprint of this tree in bytes.
+     */
+    @Override
+    public long memoryFootprint() {
+        long capacity = data.length;
+        return ARRAY_HEADER_BYTES * 7L + capacity * (Character.BYTES + 4L * Integer.BYTES + 2L * Double.BYTES)
+                + terminal.size() / Byte.SIZE;
+    }
+
+    /**
+     * Lazily iterates over the terms in a subtree in sorted order. The explicit stack holds two kinds of tasks: a
+     * non-negative node expands into its left subtree, itself, and its right subtree, while a negative (complemented)
+     * node visits the node itself and then its middle subtree.
+     */
+    private class MatchIterator implements Iterator<CharSequence> {
+        private final StringBuilder term;
+        private int[] tasks;
+        private int[] depths;
+        private int top;
+        private String next;
+
+        MatchIterator(int root, CharSequence prefix) {
+            term = new StringBuilder(prefix);
+            tasks = new int[INITIAL_CAPACITY];
+            depths = new int[INITIAL_CAPACITY];
+            top = 0;
+            if (root != NIL) {
+                push(root, prefix.length());
+            }
+            next = null;
+        }
+
+        private void push(int task, int depth) {
+            if (top == tasks.length) {
+                tasks = Arrays.copyOf(tasks, tasks.length * 2);
+                depths = Arrays.copyOf(depths, depths.length * 2);
+            }
+            tasks[top] = task;
+            depths[top] = depth;
+            top += 1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && top > 0) {
+                top -= 1;
+                int task = tasks[top];
+                int depth = depths[top];
+                if (task >= 0) {
+                    // Pushed in reverse order: left is visited first, then the node, then right.
+                    if (right[task] != NIL) {
+                        push(right[task], depth);
+                    }
+                    push(~task, depth);
+                    if (left[task] != NIL) {
+                        push(left[task], depth);
+                    }
+                } else {
+                    int node = ~task;
+                    term.setLength(depth);
+                    term.append(data[node]);
+                    if (mid[node] != NIL) {
+                        push(mid[node], depth + 1);
+                    }
+                    if (terminal.get(node)) {
+                        next = term.toString();
+                    }
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public CharSequence next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String result = next;
+            next = null;
+            return result;
+        }
+    }
+
+    /**
+     * An entry in the best-first search: either an unexplored subtree (prioritized by its best weight) or a complete
+     * term (prioritized by its own weight) when the node is {@link #NIL}.
+     */
+    private static class Candidate implements Comparable<Candidate> {
+        private final int node;
+        private final String prefix;
+        private final double priority;
+
+        Candidate(int node, String prefix, double priority) {
+            this.node = node;
+            this.prefix = prefix;
+            this.priority = priority;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            return Double.compare(other.priority, priority);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package autocomplete;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Answers a batch of prefix queries in sorted order of the prefixes. Sorting places each prefix right after any
+ * shorter prefix of it in the batch, whose matches include all of its own, so the longer prefix is answered from those
+ * matches instead of querying the index again.
+ *
+ * @see Autocomplete#allMatchesBatch(List)
+ */
+final class PrefixBatch {
+    private PrefixBatch() {
+    }
+
+    /**
+     * Returns the positions of the given prefixes in sorted order of the prefixes, with null prefixes first.
+     *
+     * @param prefixes the prefixes to sort.
+     * @return the positions of the prefixes in sorted order.
+     */
+    static int[] order(List<? extends CharSequence> prefixes) {
+        Integer[] positions = new Integer[prefixes.size()];
+        for (int i = 0; i < positions.length; i += 1) {
+            positions[i] = i;
+        }
+        Comparator<CharSequence> byPrefix = Comparator.nullsFirst(CharSequence::compare);
+        Arrays.sort(positions, (i, j) -> byPrefix.compare(prefixes.get(i), prefixes.get(j)));
+        int[] result = new int[positions.length];
+        for (int i = 0; i < result.length; i += 1) {
+            result[i] = positions[i];
+        }
+        return result;
+    }
+
+    /**
+     * Answers each prefix with the given query, or by a binary search within the matches of a shorter prefix in the
+     * batch. The query must return its matches in sorted order.
+     *
+     * @param prefixes the prefixes to answer.
+     * @param query    returns all matches of a prefix in sorted order.
+     * @return the matches of each prefix, in the order of the prefixes.
+     */
+    static List<List<CharSequence>> sortedMatches(List<? extends CharSequence> prefixes,
+                                                  Function<CharSequence, List<CharSequence>> query) {
+        return matches(prefixes, query, true);
+    }
+
+    /**
+     * Answers each prefix with the given query, or by filtering the matches of a shorter prefix in the batch.
+     *
+     * @param prefixes the prefixes to answer.
+     * @param query    returns all matches of a prefix in any order.
+     * @return the matches of each prefix, in the order of the prefixes.
+     */
+    static List<List<CharSequence>> filteredMatches(List<? extends CharSequence> prefixes,
+                                                    Function<CharSequence, List<CharSequence>> query) {
+        return matches(prefixes, query, false);
+    }
+
+    private static List<List<CharSequence>> matches(List<? extends CharSequence> prefixes,
+                                                    Function<CharSequence, List<CharSequence>> query,
+                                                    boolean sorted) {
+        List<List<CharSequence>> result = new ArrayList<>(Collections.nCopies(prefixes.size(), null));
+        // Positions of the earlier prefixes in the batch that are prefixes of one another, longest on top.
+        Deque<Integer> ancestors = new ArrayDeque<>();
+        for (int i : order(prefixes)) {
+            CharSequence prefix = prefixes.get(i);
+            if (prefix == null || prefix.length() == 0) {
+                // Implementations differ on empty prefixes, so never answer other prefixes from their matches.
+                result.set(i, query.apply(prefix));
+                continue;
+            }
+            while (!ancestors.isEmpty() && !Autocomplete.isPrefixOf(prefixes.get(ancestors.peek()), prefix)) {
+                ancestors.pop();
+            }
+            if (ancestors.isEmpty()) {
+                result.set(i, query.apply(prefix));
+            } else if (sorted) {
+                result.set(i, range(result.get(ancestors.peek()), prefix));
+            } else {
+                result.set(i, filter(result.get(ancestors.peek()), prefix));
+            }
+            ancestors.push(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a read-only view of the range of the sorted matches that match the given longer prefix.
+     */
+    private static List<CharSequence> range(List<CharSequence> matches, CharSequence prefix) {
+        int low = 0;
+        int high = matches.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (CharSequence.compare(matches.get(middle), prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int start = low;
+        high = matches.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Autocomplete.isPrefixOf(prefix, matches.get(middle))) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return Collections.unmodifiableList(matches.subList(start, low));
+    }
+
+    /**
+     * Returns the matches that match the given longer prefix, in the same order.
+     */
+    private static List<CharSequence> filter(List<CharSequence> matches, CharSequence prefix) {
+        List<CharSequence> result = new ArrayList<>();
+        for (CharSequence term : matches) {
+            if (Autocomplete.isPrefixOf(prefix, term)) {
+                result.add(term);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,102 @@
+import graphs.CSRGraph;
+import graphs.LandmarkGraph;
+import graphs.shortestpaths.AStarSolver;
+import graphs.shortestpaths.BidirectionalAStarSolver;
+import graphs.shortestpaths.ContractionHierarchy;
+import graphs.shortestpaths.IntAStarSolver;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.Point;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Measure the latency of point-to-point routing on the Seattle map with each shortest-path engine.
+ */
+public class RoutingBenchmark {
+    /**
+     * The OpenStreetMap XML file path.
+     */
+    private static final String OSM_DB_PATH = "seattle.osm.gz";
+    /**
+     * The place-importance TSV data file path from OpenStreetMap.
+     */
+    private static final String PLACES_PATH = "places.tsv";
+    /**
+     * Number of random start and goal pairs to route.
+     */
+    private static final int QUERIES = 1000;
+    /**
+     * Number of landmarks for the landmark heuristic.
+     */
+    private static final int LANDMARKS = 16;
+
+    public static void main(String[] args) throws Exception {
+        MapGraph map = new MapGraph(OSM_DB_PATH, PLACES_PATH, SpatialContext.GEO);
+        List<Point> vertices = new ArrayList<>(map.vertices());
+        Random random = new Random(373);
+        List<Point[]> queries = new ArrayList<>();
+        for (int i = 0; i < QUERIES; i += 1) {
+            queries.add(new Point[]{
+                    vertices.get(random.nextInt(vertices.size())),
+                    vertices.get(random.nextInt(vertices.size()))
+            });
+        }
+
+        long start = System.nanoTime();
+        ContractionHierarchy<Point> hierarchy = new ContractionHierarchy<>(map, vertices);
+        System.out.printf("contraction hierarchy: %.1f s to preprocess %d vertices, %d shortcuts, %.1f MB%n",
+                (System.nanoTime() - start) / 1e9, vertices.size(), hierarchy.shortcutCount(),
+                hierarchy.memoryFootprint() / 1e6);
+
+        start = System.nanoTime();
+        LandmarkGraph<Point> landmarks = new LandmarkGraph<>(map, vertices, LANDMARKS);
+        System.out.printf("landmarks: %.1f s to preprocess %d landmarks, %.1f MB per landmark, %.1f MB%n",
+                (System.nanoTime() - start) / 1e9, LANDMARKS, landmarks.memoryPerLandmark() / 1e6,
+                landmarks.memoryFootprint() / 1e6);
+
+        CSRGraph<Point> streets = CSRGraph.from(map, vertices);
+        Map<String, Function<Point[], List<Point>>> engines = new LinkedHashMap<>();
+        engines.put("A*", query -> new AStarSolver<>(map, query[0], query[1]).solution());
+        engines.put("A* with landmarks", query -> new AStarSolver<>(landmarks, query[0], query[1]).solution());
+        engines.put("bidirectional A*", query -> new BidirectionalAStarSolver<>(map, query[0], query[1]).solution());
+        engines.put("A* over CSR ids", query -> IntAStarSolver.shortestPath(streets, map, query[0], query[1]));
+        engines.put("bidirectional A* over CSR ids (MapGraph router)", query -> map.shortestPath(query[0], query[1]));
+        engines.put("contraction hierarchy", query -> hierarchy.shortestPath(query[0], query[1]));
+        double[] expected = new double[QUERIES];
+        for (Map.Entry<String, Function<Point[], List<Point>>> engine : engines.entrySet()) {
+            // Warm up the JIT compiler before timing.
+            for (Point[] query : queries.subList(0, QUERIES / 10)) {
+                engine.getValue().apply(query);
+            }
+            long[] latencies = new long[QUERIES];
+            int mismatches = 0;
+            for (int i = 0; i < QUERIES; i += 1) {
+                long begin = System.nanoTime();
+                List<Point> route = engine.getValue().apply(queries.get(i));
+                latencies[i] = System.nanoTime() - begin;
+                double length = length(map, route);
+                if (engine.getKey().equals("A*")) {
+                    expected[i] = length;
+                } else if (Math.abs(length - expected[i]) > 1e-9 * Math.max(1.0, expected[i])) {
+                    mismatches += 1;
+                }
+            }
+            Arrays.sort(latencies);
+            System.out.printf("%s: %.1f us mean, %.1f us p99, %d routes differ from A*%n", engine.getKey(),
+                    Arrays.stream(latencies).average().orElse(0) / 1000.0,
+                    latencies[(int) Math.ceil(QUERIES * 0.99) - 1] / 1000.0, mismatches);
+        }
+    }
+
+    /**
+     * Returns the total length of the given route.
+     */
+    private static double length(MapGraph map, List<Point> route) {
+        double result = 0.0;
+        for (int i = 0; i + 1 < route.size(); i += 1) {
+            result += map.estimatedDistance(route.get(i), route.get(i + 1));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,239 @@
+package graphs.shortestpaths;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Reusable state for one shortest-path search over dense int vertex ids: a distance, parent and parent edge for each
+ * vertex, a per-search mark for each vertex, and an {@link IndexedDaryHeap} perimeter. Every entry is stamped with the
+ * search that wrote it, so {@link #reset()} starts a new search in constant time instead of clearing every array.
+ * <p>
+ * Solvers borrow a workspace from a per-thread pool with {@link #acquire(int)} and return it with {@link #close()},
+ * ideally in a try-with-resources statement, so steady-state queries allocate nothing but their results. A thread may
+ * hold several workspaces at once, as the forward and backward searches of {@link ContractionHierarchy} and
+ * {@link IntAStarSolver#bidirectionalShortestPath} do. Each thread keeps at most {@link #MAX_POOLED} free workspaces,
+ * dropping the smallest when its pool is full, so a thread that moves on to a larger graph does not keep the workspaces
+ * of the smaller one. A workspace must not be used after it is returned, and returning it again has no effect.
+ */
+public final class SearchWorkspace implements AutoCloseable {
+    /**
+     * The free workspaces of each thread.
+     */
+    private static final ThreadLocal<Deque<SearchWorkspace>> POOL = ThreadLocal.withInitial(ArrayDeque::new);
+    /**
+     * Maximum number of free workspaces kept by each thread, enough for the forward and backward searches of a
+     * {@link ContractionHierarchy} query or a {@link IntAStarSolver#bidirectionalShortestPath} route.
+     */
+    public static final int MAX_POOLED = 2;
+    /**
+     * Parent and parent edge of a source vertex.
+     */
+    public static final int NONE = -1;
+    private final double[] distances;
+    private final int[] parents;
+    private final int[] parentEdges;
+    /**
+     * The search that last wrote the distance, parent and parent edge of each vertex.
+     */
+    private final int[] stamps;
+    /**
+     * The search that last marked each vertex.
+     */
+    private final int[] marks;
+    private final IndexedDaryHeap heap;
+    private int stamp;
+    /**
+     * True if and only if this workspace has been returned and not borrowed again.
+     */
+    private boolean inPool;
+
+    private SearchWorkspace(int capacity) {
+        distances = new double[capacity];
+        parents = new int[capacity];
+        parentEdges = new int[capacity];
+        stamps = new int[capacity];
+        marks = new int[capacity];
+        heap = new IndexedDaryHeap(capacity);
+        stamp = 0;
+        inPool = false;
+    }
+
+    /**
+     * Borrows a reset workspace for at least the given number of vertices from the pool of the current thread,
+     * allocating a new one only if no pooled workspace is large enough.
+     *
+     * @param capacity the number of vertices.
+     * @return a workspace that must be returned by {@link #close()}.
+     */
+    public static SearchWorkspace acquire(int capacity) {
+        Deque<SearchWorkspace> pool = POOL.get();
+        for (SearchWorkspace workspace : pool) {
+            if (workspace.capacity() >= capacity) {
+                pool.remove(workspace);
+                workspace.inPool = false;
+                workspace.reset();
+                return workspace;
+            }
+        }
+        SearchWorkspace workspace = new SearchWorkspace(capacity);
+        workspace.reset();
+        return workspace;
+    }
+
+    /**
+     * Returns this workspace to the pool of the current thread, unless it has already been returned. If the pool is
+     * full, the smallest of its workspaces and this one is dropped.
+     */
+    @Override
+    public void close() {
+        if (inPool) {
+            return;
+        }
+        heap.clear();
+        inPool = true;
+        Deque<SearchWorkspace> pool = POOL.get();
+        if (pool.size() >= MAX_POOLED) {
+            SearchWorkspace smallest = this;
+            for (SearchWorkspace workspace : pool) {
+                if (workspace.capacity() < smallest.capacity()) {
+                    smallest = workspace;
+                }
+            }
+            if (smallest == this) {
+                return;
+            }
+            pool.remove(smallest);
+        }
+        pool.push(this);
+    }
+
+    /**
+     * Returns the number of vertices this workspace can hold.
+     *
+     * @return the capacity of this workspace.
+     */
+    public int capacity() {
+        return stamps.length;
+    }
+
+    /**
+     * Starts a new search: forgets every distance, parent and mark, and empties the perimeter.
+     */
+    public void reset() {
+        heap.clear();
+        stamp += 1;
+        if (stamp == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            Arrays.fill(marks, 0);
+            stamp = 1;
+        }
+    }
+
+    /**
+     * Returns the distance to the given vertex found so far in this search.
+     *
+     * @param v the vertex id.
+     * @return the distance, or {@link Double#POSITIVE_INFINITY} if the vertex has not been reached.
+     */
+    public double distance(int v) {
+        return stamps[v] == stamp ? distances[v] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the vertex before the given reached vertex on the best path found so far.
+     *
+     * @param v the vertex id.
+     * @return the parent id, or {@link #NONE} for a source.
+     */
+    public int parent(int v) {
+        return parents[v];
+    }
+
+    /**
+     * Returns the edge used to reach the given reached vertex on the best path found so far.
+     *
+     * @param v the vertex id.
+     * @return the parent edge index, or {@link #NONE} for a source or if the solver does not record edges.
+     */
+    public int parentEdge(int v) {
+        return parentEdges[v];
+    }
+
+    /**
+     * Records the given path to a vertex if it is shorter than the best found so far, and adds the vertex to the
+     * perimeter with the given priority or lowers its priority.
+     *
+     * @param v          the vertex id.
+     * @param dist       the length of the path.
+     * @param parent     the vertex before v on the path, or {@link #NONE} for a source.
+     * @param parentEdge the edge from the parent to v, or {@link #NONE}.
+     * @param priority   the priority of v in the perimeter, such as dist plus a heuristic estimate.
+     * @return true if and only if the path was shorter.
+     */
+    public boolean relax(int v, double dist, int parent, int parentEdge, double priority) {
+        if (dist >= distance(v)) {
+            return false;
+        }
+        distances[v] = dist;
+        parents[v] = parent;
+        parentEdges[v] = parentEdge;
+        stamps[v] = stamp;
+        heap.addOrDecreasePriority(v, priority);
+        return true;
+    }
+
+    /**
+     * Returns true if and only if the perimeter is empty.
+     *
+     * @return true if no vertex remains in the perimeter.
+     */
+    public boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    /**
+     * Removes and returns the vertex with the minimum priority in the perimeter.
+     *
+     * @return the vertex id.
+     */
+    public int removeMin() {
+        return heap.removeMin();
+    }
+
+    /**
+     * Returns the minimum priority in the perimeter without removing its vertex.
+     *
+     * @return the minimum priority.
+     * @throws java.util.NoSuchElementException if the perimeter is empty.
+     */
+    public double minPriority() {
+        return heap.minPriority();
+    }
+
+    /**
+     * Empties the perimeter, keeping the distances and parents found so far.
+     */
+    public void stop() {
+        heap.clear();
+    }
+
+    /**
+     * Marks the given vertex in this search, such as when it is settled.
+     *
+     * @param v the vertex id.
+     */
+    public void mark(int v) {
+        marks[v] = stamp;
+    }
+
+    /**
+     * Returns true if and only if the given vertex has been marked in this search.
+     *
+     * @param v the vertex id.
+     * @return true if the vertex is marked.
+     */
+    public boolean isMarked(int v) {
+        return marks[v] == stamp;
+    }
+}
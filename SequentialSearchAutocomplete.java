@@ -1,49 +1,149 @@
-package autocomplete;
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-
-/**
- * Sequential search implementation of the {@link Autocomplete} interface.
- *
- * @see Autocomplete
- */
-public class SequentialSearchAutocomplete implements Autocomplete {
-    /**
-     * {@link List} of added autocompletion terms.
-     */
-    private final List<CharSequence> elements;
-
-    /**
-     * Constructs an empty instance.
-     */
-    public SequentialSearchAutocomplete() {
-        elements = new ArrayList<>();
-    }
-
-    @Override
-    public void addAll(Collection<? extends CharSequence> terms) {
-        // TODO: Replace with your code
-        elements.addAll(terms);
-    }
-
-    @Override
-    public List<CharSequence> allMatches(CharSequence prefix) {
-        // TODO: Replace with your code
-        List<CharSequence> result = new ArrayList<>();
-        if (prefix == null || prefix.length() == 0) {
-            return result;
-        }
-        CharSequence start = elements.get(0);
-        if (start == null) {
-            return result;
-        }
-        for (CharSequence term : elements) {
-            if (Autocomplete.isPrefixOf(prefix, term)) {
-                result.add(term);
-            }
-        }
-        return result;
-    }
-}
+package autocomplete;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Sequential search implementation of the {@link Autocomplete} interface.
+ *
+ * @see Autocomplete
+ */
+public class SequentialSearchAutocomplete implements Autocomplete {
+    /**
+     * Estimated size in bytes of a {@link TreeMap} entry and its boxed {@link Double} weight.
+     */
+    private static final int ENTRY_BYTES = 56;
+    /**
+     * {@link List} of added autocompletion terms.
+     */
+    private final List<CharSequence> elements;
+    /**
+     * {@link Map} of added autocompletion terms to their weights.
+     */
+    private final Map<CharSequence, Double> weights;
+
+    /**
+     * Constructs an empty instance.
+     */
+    public SequentialSearchAutocomplete() {
+        elements = new ArrayList<>();
+        weights = new TreeMap<>(CharSequence::compare);
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        // TODO: Replace with your code
+        for (CharSequence term : terms) {
+            if (weights.putIfAbsent(term, 0.0) == null) {
+                elements.add(term);
+            }
+        }
+    }
+
+    @Override
+    public void addAll(Map<? extends CharSequence, Double> terms) {
+        for (Map.Entry<? extends CharSequence, Double> entry : terms.entrySet()) {
+            if (weights.put(entry.getKey(), entry.getValue()) == null) {
+                elements.add(entry.getKey());
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(CharSequence term) {
+        if (weights.remove(term) == null) {
+            return false;
+        }
+        elements.removeIf(element -> CharSequence.compare(element, term) == 0);
+        return true;
+    }
+
+    @Override
+    public boolean updateWeight(CharSequence term, double weight) {
+        if (!weights.containsKey(term)) {
+            return false;
+        }
+        weights.put(term, weight);
+        return true;
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return allMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix, VisitSink visits) {
+        // TODO: Replace with your code
+        List<CharSequence> result = new ArrayList<>();
+        if (prefix == null || prefix.length() == 0) {
+            return result;
+        }
+        if (elements.isEmpty()) {
+            return result;
+        }
+        visits.visited(elements.size());
+        for (CharSequence term : elements) {
+            if (Autocomplete.isPrefixOf(prefix, term)) {
+                result.add(term);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Answers a prefix of another prefix in the batch first, then finds the matches of the longer prefix by filtering
+     * its matches instead of scanning every term again.
+     */
+    @Override
+    public List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes) {
+        return PrefixBatch.filteredMatches(prefixes, this::allMatches);
+    }
+
+    @Override
+    public Stream<CharSequence> matches(CharSequence prefix) {
+        if (prefix == null || prefix.length() == 0) {
+            return Stream.empty();
+        }
+        return elements.stream().filter(term -> Autocomplete.isPrefixOf(prefix, term));
+    }
+
+    @Override
+    public long memoryFootprint() {
+        return (long) weights.size() * ENTRY_BYTES + (long) elements.size() * Integer.BYTES;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Every term is scanned, so every term is reported as visited.
+     */
+    @Override
+    public int countMatches(CharSequence prefix, VisitSink visits) {
+        if (prefix == null || prefix.length() == 0) {
+            return 0;
+        }
+        visits.visited(elements.size());
+        return countMatches(prefix);
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        return Autocomplete.topK(matches(prefix)::iterator, weights::get, k);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Every term is scanned, so every term is reported as visited.
+     */
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k, VisitSink visits) {
+        if (prefix != null && prefix.length() > 0) {
+            visits.visited(elements.size());
+        }
+        return topMatches(prefix, k);
+    }
+}
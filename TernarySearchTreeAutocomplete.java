@@ -1,126 +1,775 @@
-package autocomplete;
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-
-/**
- * Ternary search tree (TST) implementation of the {@link Autocomplete} interface.
- *
- * @see Autocomplete
- */
-public class TernarySearchTreeAutocomplete implements Autocomplete {
-    /**
-     * The overall root of the tree: the first character of the first autocompletion term added to this tree.
-     */
-    private Node overallRoot;
-
-    /**
-     * Constructs an empty instance.
-     */
-    public TernarySearchTreeAutocomplete() {
-        overallRoot = null;
-    }
-
-    public void addAll(Collection<? extends CharSequence> terms) {
-        for (CharSequence term : terms) {
-            overallRoot = add(overallRoot, term, 0);
-        }
-    }
-
-    /**
-     * Recursively adds a term to the ternary search tree, character by character.
-     */
-    private Node add(Node node, CharSequence term, int index) {
-        char currentChar = term.charAt(index);
-
-        if (node == null) {
-            node = new Node(currentChar);
-        }
-        if (currentChar < node.data) {
-            node.left = add(node.left, term, index);
-        } else if (currentChar > node.data) {
-            node.right = add(node.right, term, index);
-        } else {
-            if (index + 1 < term.length()) {
-                node.mid = add(node.mid, term, index + 1);
-            } else {
-                node.isTerm = true;
-            }
-        }
-
-        return node;
-    }
-
-    @Override
-    public List<CharSequence> allMatches(CharSequence prefix) {
-        List<CharSequence> result = new ArrayList<>();
-        Node prefixNode = getNode(overallRoot, prefix, 0);
-
-        if (prefixNode == null) {
-            return result;
-        }
-        if (prefixNode.isTerm) {
-            result.add(prefix);
-        }
-        collectMatches(prefixNode.mid, prefix.toString(), result);
-        return result;
-    }
-
-    /**
-     * Recursively finds the node corresponding to the last character of the prefix.
-     */
-    private Node getNode(Node node, CharSequence prefix, int index) {
-        if (node == null) {
-            return null;
-        }
-
-        char currentChar = prefix.charAt(index);
-        if (currentChar < node.data) {
-            return getNode(node.left, prefix, index);
-        } else if (currentChar > node.data) {
-            return getNode(node.right, prefix, index);
-        } else {
-            if (index + 1 == prefix.length()) {
-                return node;
-            }
-            return getNode(node.mid, prefix, index + 1);
-        }
-    }
-
-    /**
-     * Recursively collects all matches starting from the given node, adding valid terms to the result list.
-     */
-    private void collectMatches(Node node, String prefix, List<CharSequence> result) {
-        if (node == null) {
-            return;
-        }
-
-        collectMatches(node.left, prefix, result);
-        String newPrefix = prefix + node.data;
-        if (node.isTerm) {
-            result.add(newPrefix);
-        }
-        collectMatches(node.mid, newPrefix, result);
-        collectMatches(node.right, prefix, result);
-    }
-
-    /**
-     * A search tree node representing a single character in an autocompletion term.
-     */
-    private static class Node {
-        private final char data;
-        private boolean isTerm;
-        private Node left;
-        private Node mid;
-        private Node right;
-
-        public Node(char data) {
-            this.data = data;
-            this.isTerm = false;
-            this.left = null;
-            this.mid = null;
-            this.right = null;
-        }
-    }
-}
+package autocomplete;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Ternary search tree (TST) implementation of the {@link Autocomplete} interface.
+ *
+ * @see Autocomplete
+ */
+public class TernarySearchTreeAutocomplete implements Autocomplete {
+    /**
+     * Estimated size of a {@link Node} in bytes: a 12-byte object header, a char, a boolean, two doubles, an int count
+     * and three compressed references, 47 bytes rounded up to the 8-byte object alignment.
+     */
+    private static final int NODE_BYTES = 48;
+
+    /**
+     * The overall root of the tree: the first character of the first autocompletion term added to this tree.
+     */
+    private Node overallRoot;
+    /**
+     * The number of nodes in this tree.
+     */
+    private int size;
+
+    /**
+     * Constructs an empty instance.
+     */
+    public TernarySearchTreeAutocomplete() {
+        overallRoot = null;
+        size = 0;
+    }
+
+    public void addAll(Collection<? extends CharSequence> terms) {
+        for (CharSequence term : terms) {
+            overallRoot = add(overallRoot, term, 0, 0.0, false);
+        }
+    }
+
+    @Override
+    public void addAll(Map<? extends CharSequence, Double> terms) {
+        for (Map.Entry<? extends CharSequence, Double> entry : terms.entrySet()) {
+            overallRoot = add(overallRoot, entry.getKey(), 0, entry.getValue(), true);
+        }
+    }
+
+    /**
+     * Adds the given weighted terms using the common {@link ForkJoinPool}.
+     *
+     * @param terms map from each term to be added to its weight.
+     * @see #addAllParallel(Map, ForkJoinPool)
+     */
+    public void addAllParallel(Map<? extends CharSequence, Double> terms) {
+        addAllParallel(terms, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Adds the given weighted terms in parallel. Terms are split by their first character: the subtree below each
+     * first character is independent of the others, so each is built by its own task in the given pool. A task whose
+     * first character is already in the tree starts from a copy of its existing subtree, so the tree is not modified
+     * until every task has succeeded. The nodes for the first characters are then stitched together into a balanced
+     * binary search tree of first characters, replacing the existing subtrees.
+     *
+     * @param terms map from each term to be added to its weight.
+     * @param pool  the pool in which to build the subtrees.
+     */
+    public void addAllParallel(Map<? extends CharSequence, Double> terms, ForkJoinPool pool) {
+        Map<Character, Map<CharSequence, Double>> groups = new HashMap<>();
+        for (Map.Entry<? extends CharSequence, Double> entry : terms.entrySet()) {
+            groups.computeIfAbsent(entry.getKey().charAt(0), c -> new HashMap<>())
+                    .put(entry.getKey(), entry.getValue());
+        }
+        List<ForkJoinTask<TernarySearchTreeAutocomplete>> tasks = new ArrayList<>(groups.size());
+        for (Map.Entry<Character, Map<CharSequence, Double>> group : groups.entrySet()) {
+            Node first = findFirst(group.getKey());
+            tasks.add(pool.submit(ForkJoinTask.adapt(() -> {
+                // Build into a separate instance so that each task counts only the nodes it creates.
+                TernarySearchTreeAutocomplete part = new TernarySearchTreeAutocomplete();
+                part.overallRoot = first == null ? null : copyFirst(first);
+                part.addAll(group.getValue());
+                return part;
+            })));
+        }
+        List<TernarySearchTreeAutocomplete> parts = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<TernarySearchTreeAutocomplete> task : tasks) {
+            parts.add(task.join());
+        }
+        // Every task succeeded, so replace the subtrees of their first characters.
+        NavigableMap<Character, Node> firsts = new TreeMap<>();
+        detachFirsts(overallRoot, firsts);
+        for (TernarySearchTreeAutocomplete part : parts) {
+            firsts.put(part.overallRoot.data, part.overallRoot);
+            size += part.size;
+        }
+        overallRoot = balance(new ArrayList<>(firsts.values()), 0, firsts.size());
+    }
+
+    /**
+     * Returns the node for the given first character, or null if no term starts with it.
+     */
+    private Node findFirst(char c) {
+        Node node = overallRoot;
+        while (node != null && node.data != c) {
+            node = c < node.data ? node.left : node.right;
+        }
+        return node;
+    }
+
+    /**
+     * Returns a copy of the given first-character node and its middle subtree, without its siblings.
+     */
+    private static Node copyFirst(Node first) {
+        Node copy = new Node(first.data);
+        copy.isTerm = first.isTerm;
+        copy.weight = first.weight;
+        copy.mid = copy(first.mid);
+        copy.update();
+        return copy;
+    }
+
+    /**
+     * Returns a copy of the subtree rooted at the given node, including its siblings.
+     */
+    private static Node copy(Node node) {
+        if (node == null) {
+            return null;
+        }
+        Node copy = new Node(node.data);
+        copy.isTerm = node.isTerm;
+        copy.weight = node.weight;
+        copy.left = copy(node.left);
+        copy.mid = copy(node.mid);
+        copy.right = copy(node.right);
+        copy.update();
+        return copy;
+    }
+
+    /**
+     * Collects and detaches the nodes of the binary search tree of first characters rooted at the given node.
+     */
+    private static void detachFirsts(Node node, Map<Character, Node> firsts) {
+        if (node == null) {
+            return;
+        }
+        detachFirsts(node.left, firsts);
+        detachFirsts(node.right, firsts);
+        node.left = null;
+        node.right = null;
+        node.update();
+        firsts.put(node.data, node);
+    }
+
+    /**
+     * Links the sorted nodes between low (inclusive) and high (exclusive) into a balanced binary search tree through
+     * their left and right children, returning its root.
+     */
+    private static Node balance(List<Node> nodes, int low, int high) {
+        if (low >= high) {
+            return null;
+        }
+        int middle = (low + high) >>> 1;
+        Node node = nodes.get(middle);
+        node.left = balance(nodes, low, middle);
+        node.right = balance(nodes, middle + 1, high);
+        node.update();
+        return node;
+    }
+
+    /**
+     * Recursively adds a term to the ternary search tree, character by character, and updates the best weight of each
+     * subtree along the way.
+     *
+     * @param replace whether to replace the weight of the term if it is already present.
+     */
+    private Node add(Node node, CharSequence term, int index, double weight, boolean replace) {
+        char currentChar = term.charAt(index);
+
+        if (node == null) {
+            node = new Node(currentChar);
+            size += 1;
+        }
+        if (currentChar < node.data) {
+            node.left = add(node.left, term, index, weight, replace);
+        } else if (currentChar > node.data) {
+            node.right = add(node.right, term, index, weight, replace);
+        } else {
+            if (index + 1 < term.length()) {
+                node.mid = add(node.mid, term, index + 1, weight, replace);
+            } else {
+                if (!node.isTerm || replace) {
+                    node.weight = weight;
+                }
+                node.isTerm = true;
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Unmarks the last node of the term and prunes every node on its path that no longer leads to any term.
+     */
+    @Override
+    public boolean remove(CharSequence term) {
+        if (term == null || term.length() == 0) {
+            return false;
+        }
+        Node node = getNode(overallRoot, term, 0, VisitSink.NONE);
+        if (node == null || !node.isTerm) {
+            return false;
+        }
+        overallRoot = remove(overallRoot, term, 0);
+        return true;
+    }
+
+    /**
+     * Recursively removes a term that is present in the tree, replacing each node that no longer has a term or a
+     * middle child by its left and right subtrees, and updates the best weight of each subtree along the way.
+     */
+    private Node remove(Node node, CharSequence term, int index) {
+        char currentChar = term.charAt(index);
+        if (currentChar < node.data) {
+            node.left = remove(node.left, term, index);
+        } else if (currentChar > node.data) {
+            node.right = remove(node.right, term, index);
+        } else if (index + 1 < term.length()) {
+            node.mid = remove(node.mid, term, index + 1);
+        } else {
+            node.isTerm = false;
+        }
+        if (!node.isTerm && node.mid == null) {
+            size -= 1;
+            return join(node.left, node.right);
+        }
+        node.update();
+        return node;
+    }
+
+    /**
+     * Joins two sibling subtrees, where every character in the left subtree is less than every character in the right
+     * subtree, by hanging the left subtree below the smallest node of the right subtree.
+     */
+    private static Node join(Node left, Node right) {
+        if (left == null) {
+            return right;
+        } else if (right == null) {
+            return left;
+        }
+        right.left = join(left, right.left);
+        right.update();
+        return right;
+    }
+
+    @Override
+    public boolean updateWeight(CharSequence term, double weight) {
+        if (term == null || term.length() == 0) {
+            return false;
+        }
+        Node node = getNode(overallRoot, term, 0, VisitSink.NONE);
+        if (node == null || !node.isTerm) {
+            return false;
+        }
+        overallRoot = add(overallRoot, term, 0, weight, true);
+        return true;
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        return allMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix, VisitSink visits) {
+        List<CharSequence> result = new ArrayList<>();
+        Node prefixNode = getNode(overallRoot, prefix, 0, visits);
+
+        if (prefixNode == null) {
+            return result;
+        }
+        if (prefixNode.isTerm) {
+            result.add(prefix);
+        }
+        collectMatches(prefixNode.mid, prefix.toString(), result);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Answers the prefixes in sorted order. A prefix of another prefix in the batch is answered first, and the longer
+     * prefix is answered by binary search within its matches. Any other prefix resumes the descent of the previous
+     * one below the characters they have in common instead of starting again from the root.
+     */
+    @Override
+    public List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes) {
+        return PrefixBatch.sortedMatches(prefixes, new Descent()::allMatches);
+    }
+
+    @Override
+    public Stream<CharSequence> matches(CharSequence prefix) {
+        if (prefix == null || prefix.length() == 0) {
+            return Stream.empty();
+        }
+        Node prefixNode = getNode(overallRoot, prefix, 0, VisitSink.NONE);
+        if (prefixNode == null) {
+            return Stream.empty();
+        }
+        Stream<CharSequence> rest = StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                new MatchIterator(prefixNode.mid, prefix), Spliterator.ORDERED | Spliterator.NONNULL), false);
+        if (prefixNode.isTerm) {
+            return Stream.concat(Stream.of(prefix), rest);
+        }
+        return rest;
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix) {
+        return countMatches(prefix, VisitSink.NONE);
+    }
+
+    @Override
+    public int countMatches(CharSequence prefix, VisitSink visits) {
+        if (prefix == null || prefix.length() == 0) {
+            return 0;
+        }
+        Node prefixNode = getNode(overallRoot, prefix, 0, visits);
+        if (prefixNode == null) {
+            return 0;
+        }
+        int count = prefixNode.isTerm ? 1 : 0;
+        if (prefixNode.mid != null) {
+            count += prefixNode.mid.count;
+        }
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Explores the subtree below the prefix best-first: each unexplored subtree is ordered by the best weight of any
+     * term within it, so only subtrees that could still contain one of the k best terms are ever expanded.
+     */
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        return topMatches(prefix, k, VisitSink.NONE);
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k, VisitSink visits) {
+        List<CharSequence> result = new ArrayList<>();
+        if (prefix == null || prefix.length() == 0 || k <= 0) {
+            return result;
+        }
+        Node prefixNode = getNode(overallRoot, prefix, 0, visits);
+        if (prefixNode == null) {
+            return result;
+        }
+        PriorityQueue<Candidate> perimeter = new PriorityQueue<>();
+        if (prefixNode.isTerm) {
+            perimeter.add(new Candidate(null, prefix.toString(), prefixNode.weight));
+        }
+        if (prefixNode.mid != null) {
+            perimeter.add(new Candidate(prefixNode.mid, prefix.toString(), prefixNode.mid.max));
+        }
+        int expanded = 0;
+        while (!perimeter.isEmpty() && result.size() < k) {
+            Candidate candidate = perimeter.remove();
+            Node node = candidate.node;
+            if (node == null) {
+                result.add(candidate.prefix);
+                continue;
+            }
+            expanded += 1;
+            String newPrefix = candidate.prefix + node.data;
+            if (node.isTerm) {
+                perimeter.add(new Candidate(null, newPrefix, node.weight));
+            }
+            if (node.left != null) {
+                perimeter.add(new Candidate(node.left, candidate.prefix, node.left.max));
+            }
+            if (node.mid != null) {
+                perimeter.add(new Candidate(node.mid, newPrefix, node.mid.max));
+            }
+            if (node.right != null) {
+                perimeter.add(new Candidate(node.right, candidate.prefix, node.right.max));
+            }
+        }
+        visits.visited(expanded);
+        return result;
+    }
+
+    /**
+     * Returns all autocompletion terms that begin with some string within the given edit distance of the prefix.
+     *
+     * @param prefix      search query.
+     * @param maxDistance maximum number of character insertions, deletions, and substitutions.
+     * @return a list of terms that fuzzy-match the prefix in sorted order.
+     * @see #fuzzyMatches(CharSequence, int, int)
+     */
+    public List<CharSequence> fuzzyMatches(CharSequence prefix, int maxDistance) {
+        return fuzzyMatches(prefix, maxDistance, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns autocompletion terms that begin with some string within the given edit distance of the prefix, visiting
+     * at most the given number of nodes. The search walks the tree depth-first while maintaining one row of the
+     * Levenshtein distance table per depth, and abandons a branch as soon as every entry in its row exceeds the
+     * maximum distance. Once the node budget is spent, the terms found so far are returned.
+     *
+     * @param prefix      search query.
+     * @param maxDistance maximum number of character insertions, deletions, and substitutions.
+     * @param maxVisits   maximum number of nodes to visit, bounding the cost of a single query.
+     * @return a list of terms that fuzzy-match the prefix in sorted order.
+     */
+    public List<CharSequence> fuzzyMatches(CharSequence prefix, int maxDistance, int maxVisits) {
+        List<CharSequence> result = new ArrayList<>();
+        if (prefix == null || prefix.length() == 0) {
+            return result;
+        }
+        FuzzySearch search = new FuzzySearch(prefix, maxDistance, maxVisits, result);
+        int[] first = new int[prefix.length() + 1];
+        for (int j = 0; j < first.length; j += 1) {
+            first[j] = j;
+        }
+        search.visit(overallRoot, first, 0);
+        return result;
+    }
+
+    /**
+     * Iteratively finds the node corresponding to the last character of the prefix, starting from the given node at
+     * the given index of the prefix, and reports the nodes it descends through to the given sink.
+     */
+    private Node getNode(Node node, CharSequence prefix, int index, VisitSink visits) {
+        int descended = 0;
+        while (node != null) {
+            descended += 1;
+            char currentChar = prefix.charAt(index);
+            if (currentChar < node.data) {
+                node = node.left;
+            } else if (currentChar > node.data) {
+                node = node.right;
+            } else if (index + 1 == prefix.length()) {
+                break;
+            } else {
+                node = node.mid;
+                index += 1;
+            }
+        }
+        visits.visited(descended);
+        return node;
+    }
+
+    /**
+     * Recursively collects all matches starting from the given node, adding valid terms to the result list.
+     */
+    private void collectMatches(Node node, String prefix, List<CharSequence> result) {
+        if (node == null) {
+            return;
+        }
+
+        collectMatches(node.left, prefix, result);
+        String newPrefix = prefix + node.data;
+        if (node.isTerm) {
+            result.add(newPrefix);
+        }
+        collectMatches(node.mid, newPrefix, result);
+        collectMatches(node.right, prefix, result);
+    }
+
+    /**
+     * Returns the number of nodes in this tree.
+     *
+     * @return the number of nodes in this tree.
+     */
+    public int nodeCount() {
+        return size;
+    }
+
+    /**
+     * Returns the estimated number of bytes used by the nodes of this tree.
+     *
+     * @return the estimated memory footprint of this tree in bytes.
+     */
+    @Override
+    public long memoryFootprint() {
+        return (long) size * NODE_BYTES;
+    }
+
+    /**
+     * A descent through the tree shared by prefixes queried in sorted order, remembering the node for each character
+     * of the previous prefix that was found.
+     */
+    private class Descent {
+        private Node[] path;
+        private int depth;
+        private CharSequence previous;
+
+        Descent() {
+            path = new Node[16];
+            depth = 0;
+            previous = "";
+        }
+
+        /**
+         * Returns all matches of the prefix, descending only below the characters it shares with the previous prefix.
+         */
+        List<CharSequence> allMatches(CharSequence prefix) {
+            List<CharSequence> result = new ArrayList<>();
+            if (prefix == null || prefix.length() == 0) {
+                return result;
+            }
+            int index = 0;
+            while (index < depth && index < prefix.length() && prefix.charAt(index) == previous.charAt(index)) {
+                index += 1;
+            }
+            Node node = index == 0 ? overallRoot : path[index - 1].mid;
+            while (node != null && index < prefix.length()) {
+                char currentChar = prefix.charAt(index);
+                if (currentChar < node.data) {
+                    node = node.left;
+                } else if (currentChar > node.data) {
+                    node = node.right;
+                } else {
+                    if (index == path.length) {
+                        path = Arrays.copyOf(path, index * 2);
+                    }
+                    path[index] = node;
+                    index += 1;
+                    node = node.mid;
+                }
+            }
+            depth = index;
+            previous = prefix;
+            if (index == prefix.length()) {
+                Node prefixNode = path[index - 1];
+                if (prefixNode.isTerm) {
+                    result.add(prefix);
+                }
+                collectMatches(prefixNode.mid, prefix.toString(), result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * A search tree node representing a single character in an autocompletion term.
+     */
+    private static class Node {
+        private final char data;
+        private boolean isTerm;
+        private double weight;
+        /**
+         * The best weight of any term in the subtree rooted at this node, including its left and right siblings.
+         */
+        private double max;
+        /**
+         * The number of terms in the subtree rooted at this node, including its left and right siblings.
+         */
+        private int count;
+        private Node left;
+        private Node mid;
+        private Node right;
+
+        public Node(char data) {
+            this.data = data;
+            this.isTerm = false;
+            this.weight = 0.0;
+            this.max = Double.NEGATIVE_INFINITY;
+            this.count = 0;
+            this.left = null;
+            this.mid = null;
+            this.right = null;
+        }
+
+        /**
+         * Recomputes the best weight and the number of terms of this subtree from this node and its children.
+         */
+        private void update() {
+            max = isTerm ? weight : Double.NEGATIVE_INFINITY;
+            count = isTerm ? 1 : 0;
+            if (left != null) {
+                max = Math.max(max, left.max);
+                count += left.count;
+            }
+            if (mid != null) {
+                max = Math.max(max, mid.max);
+                count += mid.count;
+            }
+            if (right != null) {
+                max = Math.max(max, right.max);
+                count += right.count;
+            }
+        }
+    }
+
+    /**
+     * State of a single bounded edit-distance traversal.
+     */
+    private static class FuzzySearch {
+        private final CharSequence prefix;
+        private final int maxDistance;
+        private final int maxVisits;
+        private final List<CharSequence> result;
+        private final StringBuilder term;
+        /**
+         * One row of the edit distance table per depth, shared by sibling nodes at that depth.
+         */
+        private final List<int[]> rows;
+        private int visits;
+
+        FuzzySearch(CharSequence prefix, int maxDistance, int maxVisits, List<CharSequence> result) {
+            this.prefix = prefix;
+            this.maxDistance = maxDistance;
+            this.maxVisits = maxVisits;
+            this.result = result;
+            this.term = new StringBuilder();
+            this.rows = new ArrayList<>();
+            this.visits = 0;
+        }
+
+        /**
+         * Visits the subtree rooted at the given node, whose character is at the given depth of the term, given the
+         * edit distance row computed for the parent term.
+         */
+        private void visit(Node node, int[] parentRow, int depth) {
+            if (node == null || visits >= maxVisits) {
+                return;
+            }
+            visits += 1;
+            visit(node.left, parentRow, depth);
+
+            if (rows.size() == depth) {
+                rows.add(new int[parentRow.length]);
+            }
+            int[] row = rows.get(depth);
+            row[0] = parentRow[0] + 1;
+            int rowMin = row[0];
+            for (int j = 1; j < row.length; j += 1) {
+                int cost = prefix.charAt(j - 1) == node.data ? 0 : 1;
+                row[j] = Math.min(Math.min(row[j - 1], parentRow[j]) + 1, parentRow[j - 1] + cost);
+                rowMin = Math.min(rowMin, row[j]);
+            }
+            term.setLength(depth);
+            term.append(node.data);
+            if (row[row.length - 1] <= maxDistance) {
+                // The term so far is close enough to the prefix, so every completion of it matches.
+                if (node.isTerm) {
+                    result.add(term.toString());
+                }
+                collect(node.mid, depth + 1);
+            } else if (rowMin <= maxDistance) {
+                visit(node.mid, row, depth + 1);
+            }
+
+            visit(node.right, parentRow, depth);
+        }
+
+        /**
+         * Collects every term in the subtree rooted at the given node, counting each node against the budget.
+         */
+        private void collect(Node node, int depth) {
+            if (node == null || visits >= maxVisits) {
+                return;
+            }
+            visits += 1;
+            collect(node.left, depth);
+            term.setLength(depth);
+            term.append(node.data);
+            if (node.isTerm) {
+                result.add(term.toString());
+            }
+            collect(node.mid, depth + 1);
+            collect(node.right, depth);
+        }
+    }
+
+    /**
+     * Lazily iterates over the terms in a subtree in sorted order using an explicit stack. A frame that has not been
+     * expanded yet visits its left subtree, then itself, then its right subtree; an expanded frame visits its own term
+     * and then its middle subtree.
+     */
+    private static class MatchIterator implements Iterator<CharSequence> {
+        private final Deque<Frame> stack;
+        private final StringBuilder term;
+        private String next;
+
+        MatchIterator(Node root, CharSequence prefix) {
+            stack = new ArrayDeque<>();
+            term = new StringBuilder(prefix);
+            if (root != null) {
+                stack.push(new Frame(root, prefix.length(), false));
+            }
+            next = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !stack.isEmpty()) {
+                Frame frame = stack.pop();
+                Node node = frame.node;
+                if (!frame.expanded) {
+                    if (node.right != null) {
+                        stack.push(new Frame(node.right, frame.depth, false));
+                    }
+                    stack.push(new Frame(node, frame.depth, true));
+                    if (node.left != null) {
+                        stack.push(new Frame(node.left, frame.depth, false));
+                    }
+                } else {
+                    term.setLength(frame.depth);
+                    term.append(node.data);
+                    if (node.mid != null) {
+                        stack.push(new Frame(node.mid, frame.depth + 1, false));
+                    }
+                    if (node.isTerm) {
+                        next = term.toString();
+                    }
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public CharSequence next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String result = next;
+            next = null;
+            return result;
+        }
+
+        /**
+         * A node waiting to be visited at the given depth (the index of its character in the term).
+         */
+        private static class Frame {
+            private final Node node;
+            private final int depth;
+            private final boolean expanded;
+
+            Frame(Node node, int depth, boolean expanded) {
+                this.node = node;
+                this.depth = depth;
+                this.expanded = expanded;
+            }
+        }
+    }
+
+    /**
+     * An entry in the best-first search: either an unexplored subtree (prioritized by its best weight) or a complete
+     * term (prioritized by its own weight) when the node is null.
+     */
+    private static class Candidate implements Comparable<Candidate> {
+        private final Node node;
+        private final String prefix;
+        private final double priority;
+
+        Candidate(Node node, String prefix, double priority) {
+            this.node = node;
+            this.prefix = prefix;
+            this.priority = priority;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            return Double.compare(other.priority, priority);
+        }
+    }
+}
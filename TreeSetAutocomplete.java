@@ -1,48 +1,104 @@
-package autocomplete;
-
-import java.util.*;
-
-/**
- * {@link TreeSet} implementation of the {@link Autocomplete} interface.
- *
- * @see Autocomplete
- */
-public class TreeSetAutocomplete implements Autocomplete {
-    /**
-     * {@link NavigableSet} of added autocompletion terms.
-     */
-    private final NavigableSet<CharSequence> elements;
-
-    /**
-     * Constructs an empty instance.
-     */
-    public TreeSetAutocomplete() {
-        elements = new TreeSet<>(CharSequence::compare);
-    }
-
-    @Override
-    public void addAll(Collection<? extends CharSequence> terms) {
-        elements.addAll(terms);
-    }
-
-    @Override
-    public List<CharSequence> allMatches(CharSequence prefix) {
-        List<CharSequence> result = new ArrayList<>();
-        if (prefix == null || prefix.length() == 0) {
-            return result;
-        }
-        CharSequence start = elements.ceiling(prefix);
-        if (start == null) {
-            return result;
-        }
-
-        for (CharSequence term : elements.tailSet(start)) {
-            if (Autocomplete.isPrefixOf(prefix, term)) {
-                result.add(term);
-            } else {
-                return result;
-            }
-        }
-        return result;
-    }
-}
+package autocomplete;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * {@link TreeSet} implementation of the {@link Autocomplete} interface.
+ *
+ * @see Autocomplete
+ */
+public class TreeSetAutocomplete implements Autocomplete {
+    /**
+     * Estimated size in bytes of a {@link TreeMap} entry and its boxed {@link Double} weight.
+     */
+    private static final int ENTRY_BYTES = 56;
+    /**
+     * {@link NavigableMap} of added autocompletion terms to their weights.
+     */
+    private final NavigableMap<CharSequence, Double> elements;
+
+    /**
+     * Constructs an empty instance.
+     */
+    public TreeSetAutocomplete() {
+        elements = new TreeMap<>(CharSequence::compare);
+    }
+
+    @Override
+    public void addAll(Collection<? extends CharSequence> terms) {
+        for (CharSequence term : terms) {
+            elements.putIfAbsent(term, 0.0);
+        }
+    }
+
+    @Override
+    public void addAll(Map<? extends CharSequence, Double> terms) {
+        elements.putAll(terms);
+    }
+
+    @Override
+    public boolean remove(CharSequence term) {
+        return elements.remove(term) != null;
+    }
+
+    @Override
+    public boolean updateWeight(CharSequence term, double weight) {
+        if (!elements.containsKey(term)) {
+            return false;
+        }
+        elements.put(term, weight);
+        return true;
+    }
+
+    @Override
+    public List<CharSequence> allMatches(CharSequence prefix) {
+        List<CharSequence> result = new ArrayList<>();
+        if (prefix == null || prefix.length() == 0) {
+            return result;
+        }
+        CharSequence start = elements.ceilingKey(prefix);
+        if (start == null) {
+            return result;
+        }
+
+        for (CharSequence term : elements.navigableKeySet().tailSet(start)) {
+            if (Autocomplete.isPrefixOf(prefix, term)) {
+                result.add(term);
+            } else {
+                return result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Answers a prefix of another prefix in the batch first, then finds the matches of the longer prefix by binary
+     * search within its matches.
+     */
+    @Override
+    public List<List<CharSequence>> allMatchesBatch(List<? extends CharSequence> prefixes) {
+        return PrefixBatch.sortedMatches(prefixes, this::allMatches);
+    }
+
+    @Override
+    public Stream<CharSequence> matches(CharSequence prefix) {
+        if (prefix == null || prefix.length() == 0) {
+            return Stream.empty();
+        }
+        return elements.navigableKeySet().tailSet(prefix, true).stream()
+                .takeWhile(term -> Autocomplete.isPrefixOf(prefix, term));
+    }
+
+    @Override
+    public long memoryFootprint() {
+        return (long) elements.size() * ENTRY_BYTES;
+    }
+
+    @Override
+    public List<CharSequence> topMatches(CharSequence prefix, int k) {
+        return Autocomplete.topK(matches(prefix)::iterator, elements::get, k);
+    }
+}
@@ -0,0 +1,24 @@
+package autocomplete;
+
+/**
+ * Receives the number of index nodes or entries that a query visits, such as the tree nodes it descends through or
+ * the sorted entries it probes, to measure how much of an index each query reads.
+ *
+ * @see Autocomplete#topMatches(CharSequence, int, VisitSink)
+ * @see InstrumentedAutocomplete
+ */
+@FunctionalInterface
+public interface VisitSink {
+    /**
+     * A sink that ignores every visit, passed by the queries that are not measured.
+     */
+    VisitSink NONE = count -> {
+    };
+
+    /**
+     * Records that the query visited the given number of nodes or entries.
+     *
+     * @param count the number of nodes or entries visited.
+     */
+    void visited(long count);
+}